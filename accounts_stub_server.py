@@ -0,0 +1,147 @@
+#!/usr/bin/env python3
+"""In-memory stand-in for the accounts service, for load testing CoreBanking offline.
+
+Serves the internal endpoints CoreBanking calls during payment processing, with the same request
+and response shapes as accounts-go-service but no database or token check. Every account starts
+with the same balance. Point CoreBanking at it with ACCOUNTS_SERVICE_URL=http://localhost:8002.
+
+Usage: ./accounts_stub_server.py [--port 8002] [--balance 1000000000] [--latency-ms 0]
+"""
+
+import argparse
+import json
+import logging
+import threading
+import time
+from datetime import datetime, timezone
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+logging.basicConfig(level=logging.INFO, format="%(asctime)s %(levelname)s %(message)s")
+logger = logging.getLogger("accounts-stub")
+
+
+class Ledger:
+    """Balances and debit entries, keyed the way the real service de-duplicates them."""
+
+    def __init__(self, opening_balance):
+        self.opening_balance = opening_balance
+        self.balances = {}
+        self.entries = {}  # (accountNumber, referenceNumber) -> (transactionId, balanceAfter)
+        self.next_id = 1
+        self.lock = threading.Lock()
+
+    def balance(self, account_number):
+        with self.lock:
+            return self.balances.get(account_number, self.opening_balance)
+
+    def debit_and_record(self, account_number, amount, reference_number):
+        with self.lock:
+            existing = self.entries.get((account_number, reference_number))
+            if existing:
+                return {"success": True, "accountNumber": account_number, "newBalance": existing[1],
+                        "transactionId": existing[0], "duplicate": True}
+
+            new_balance = round(self.balances.get(account_number, self.opening_balance) - amount, 2)
+            if new_balance < 0:
+                return None
+
+            transaction_id = self.next_id
+            self.next_id += 1
+            self.balances[account_number] = new_balance
+            self.entries[(account_number, reference_number)] = (transaction_id, new_balance)
+            return {"success": True, "accountNumber": account_number, "newBalance": new_balance,
+                    "transactionId": transaction_id, "duplicate": False}
+
+
+class StubHandler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+    ledger = None
+    latency = 0.0
+
+    def do_GET(self):
+        if self.path == "/health":
+            self.send_json(200, {"status": "healthy", "service": "accounts-stub", "database": False,
+                                 "timestamp": datetime.now(timezone.utc).isoformat()})
+        elif self.path.startswith("/internal/accounts/balance/"):
+            account_number = self.path.rsplit("/", 1)[-1]
+            self.send_json(200, {"accountNumber": account_number, "balance": self.ledger.balance(account_number),
+                                 "currency": "INR", "status": "active"})
+        else:
+            self.send_json(404, {"error": "not_found", "message": "Unknown endpoint: " + self.path})
+
+    def do_POST(self):
+        body = self.read_body()
+        if self.path != "/internal/accounts/debit-and-record":
+            self.send_json(404, {"error": "not_found", "message": "Unknown endpoint: " + self.path})
+            return
+
+        try:
+            request = json.loads(body)
+            account_number = request["accountNumber"]
+            amount = float(request["amount"])
+            reference_number = request["referenceNumber"]
+        except (ValueError, KeyError, TypeError) as e:
+            self.send_json(400, {"error": "invalid_request", "message": "Invalid request format: " + str(e)})
+            return
+        if amount <= 0:
+            self.send_json(400, {"error": "invalid_request", "message": "Amount must be positive"})
+            return
+
+        if self.latency:
+            time.sleep(self.latency)
+
+        response = self.ledger.debit_and_record(account_number, amount, reference_number)
+        if response is None:
+            self.send_json(400, {"error": "debit_failed", "message": "Insufficient funds"})
+        else:
+            self.send_json(200, response)
+
+    def read_body(self):
+        if "chunked" not in self.headers.get("Transfer-Encoding", ""):
+            return self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        # RestTemplate streams request bodies without a Content-Length unless it buffers them
+        chunks = []
+        while True:
+            size = int(self.rfile.readline().split(b";")[0], 16)
+            if size == 0:
+                while self.rfile.readline() not in (b"\r\n", b"\n", b""):
+                    pass
+                return b"".join(chunks)
+            chunks.append(self.rfile.read(size))
+            self.rfile.readline()
+
+    def send_json(self, status, payload):
+        data = json.dumps(payload).encode("utf-8")
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        self.wfile.write(data)
+
+    def log_message(self, format, *args):
+        # Per-request logging would dominate the cost of a load test
+        pass
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--port", type=int, default=8002)
+    parser.add_argument("--balance", type=float, default=1_000_000_000.0, help="opening balance of every account")
+    parser.add_argument("--latency-ms", type=float, default=0.0, help="delay added to each debit")
+    args = parser.parse_args()
+
+    StubHandler.ledger = Ledger(args.balance)
+    StubHandler.latency = args.latency_ms / 1000.0
+
+    server = ThreadingHTTPServer(("0.0.0.0", args.port), StubHandler)
+    server.daemon_threads = True
+    logger.info("Accounts stub listening on port %d (opening balance %.2f, latency %.0f ms)",
+                args.port, args.balance, args.latency_ms)
+    try:
+        server.serve_forever()
+    except KeyboardInterrupt:
+        pass
+
+
+if __name__ == "__main__":
+    main()
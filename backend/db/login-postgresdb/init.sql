@@ -185,6 +185,7 @@ CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_accounts_user_id ON accounts(user_id);
 CREATE INDEX IF NOT EXISTS idx_accounts_account_number ON accounts(account_number);
 CREATE INDEX IF NOT EXISTS idx_transactions_account_id ON transactions(account_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_account_reference ON transactions(account_id, reference_number);
 CREATE INDEX IF NOT EXISTS idx_login_requests_user_id ON login_requests(user_id);
 CREATE INDEX IF NOT EXISTS idx_login_requests_attempted_at ON login_requests(attempted_at);
 CREATE INDEX IF NOT EXISTS idx_active_sessions_user_id ON active_sessions(user_id);
@@ -221,6 +222,29 @@ CREATE INDEX IF NOT EXISTS idx_core_payments_status ON core_payments(status);
 CREATE INDEX IF NOT EXISTS idx_core_payments_payer_account ON core_payments(payer_account);
 CREATE INDEX IF NOT EXISTS idx_core_payments_created_at ON core_payments(created_at);
 
+-- Pooled ids: Hibernate and the batch writer reserve 50 ids per nextval
+ALTER SEQUENCE core_payments_id_seq INCREMENT BY 50;
+
+-- Intent log for the write-once persistence mode (processing.persistence.intent-log.enabled):
+-- a row claims a txnRef while it is processed and is deleted by the final core_payments insert
+CREATE TABLE IF NOT EXISTS core_payment_intents (
+    txn_ref UUID PRIMARY KEY,
+    cbs_id UUID NOT NULL,
+    raw_json JSONB,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_core_payment_intents_created_at ON core_payment_intents(created_at);
+
+-- Request bodies over processing.persistence.raw-json.offload-threshold-bytes, gzip-compressed;
+-- core_payments.raw_json is NULL for these so the hot table stays narrow
+CREATE TABLE IF NOT EXISTS core_payment_raw_payloads (
+    txn_ref UUID PRIMARY KEY REFERENCES core_payments(txn_ref),
+    encoding VARCHAR(10) NOT NULL DEFAULT 'gzip',
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
 -- Create core_accounts table for CoreBanking service (separate from login accounts)
 CREATE TABLE IF NOT EXISTS core_accounts (
     id SERIAL PRIMARY KEY,
@@ -100,6 +100,13 @@ type UpdateBalanceResponse struct {
 	Message       string  `json:"message,omitempty"`
 }
 
+type AccountBalanceResponse struct {
+	AccountNumber string  `json:"accountNumber"`
+	Balance       float64 `json:"balance"`
+	Currency      string  `json:"currency"`
+	Status        string  `json:"status"`
+}
+
 type CreateTransactionRequest struct {
 	AccountNumber   string  `json:"accountNumber" binding:"required"`
 	TransactionType string  `json:"transactionType" binding:"required"`
@@ -117,6 +124,22 @@ type CreateTransactionResponse struct {
 	Message       string `json:"message,omitempty"`
 }
 
+type DebitAndRecordRequest struct {
+	AccountNumber   string  `json:"accountNumber" binding:"required"`
+	Amount          float64 `json:"amount" binding:"required,gt=0"`
+	ReferenceNumber string  `json:"referenceNumber" binding:"required"`
+	Description     string  `json:"description" binding:"required"`
+}
+
+type DebitAndRecordResponse struct {
+	Success       bool    `json:"success"`
+	AccountNumber string  `json:"accountNumber"`
+	NewBalance    float64 `json:"newBalance"`
+	TransactionID int     `json:"transactionId"`
+	Duplicate     bool    `json:"duplicate"`
+	Message       string  `json:"message,omitempty"`
+}
+
 // JWT Claims
 type Claims struct {
 	UserID string   `json:"user_id"`
@@ -301,6 +324,23 @@ func getUserAccounts(ctx context.Context, db *sql.DB, userID string) ([]Account,
 	return accounts, nil
 }
 
+// Get the current balance of one active account
+func getAccountBalance(ctx context.Context, db *sql.DB, accountNumber string) (*AccountBalanceResponse, error) {
+	query := `SELECT account_number, balance, currency, status FROM accounts WHERE account_number = $1 AND status = 'active'`
+
+	var response AccountBalanceResponse
+	err := db.QueryRowContext(ctx, query, accountNumber).Scan(
+		&response.AccountNumber,
+		&response.Balance,
+		&response.Currency,
+		&response.Status,
+	)
+	if err != nil {
+		return nil, err
+	}
+	return &response, nil
+}
+
 // Update account balance and create transaction record
 func updateAccountBalance(ctx context.Context, db *sql.DB, request UpdateBalanceRequest) (*UpdateBalanceResponse, error) {
 	// Start database transaction
@@ -376,6 +416,92 @@ func updateAccountBalance(ctx context.Context, db *sql.DB, request UpdateBalance
 	}, nil
 }
 
+// Debit an account and write its ledger entry in one database transaction. The account row is
+// locked first, so a retry with the same reference number finds the earlier entry and gets it back
+// instead of being debited twice.
+func debitAndRecord(ctx context.Context, db *sql.DB, request DebitAndRecordRequest) (*DebitAndRecordResponse, error) {
+	tx, err := db.BeginTx(ctx, nil)
+	if err != nil {
+		return nil, err
+	}
+	defer tx.Rollback()
+
+	var accountID int
+	var currentBalance float64
+	query := `SELECT id, balance FROM accounts WHERE account_number = $1 AND status = 'active' FOR UPDATE`
+
+	err = tx.QueryRowContext(ctx, query, request.AccountNumber).Scan(&accountID, &currentBalance)
+	if err != nil {
+		if err == sql.ErrNoRows {
+			return &DebitAndRecordResponse{
+				Success: false,
+				Message: "Account not found or inactive",
+			}, nil
+		}
+		return nil, err
+	}
+
+	// Already applied under this reference number
+	var existingID int
+	var existingBalance sql.NullFloat64
+	existingQuery := `SELECT id, balance_after FROM transactions WHERE account_id = $1 AND reference_number = $2 ORDER BY id LIMIT 1`
+	err = tx.QueryRowContext(ctx, existingQuery, accountID, request.ReferenceNumber).Scan(&existingID, &existingBalance)
+	if err == nil {
+		newBalance := currentBalance
+		if existingBalance.Valid {
+			newBalance = existingBalance.Float64
+		}
+		return &DebitAndRecordResponse{
+			Success:       true,
+			AccountNumber: request.AccountNumber,
+			NewBalance:    newBalance,
+			TransactionID: existingID,
+			Duplicate:     true,
+		}, nil
+	}
+	if err != sql.ErrNoRows {
+		return nil, err
+	}
+
+	newBalance := currentBalance - request.Amount
+	if newBalance < 0 {
+		return &DebitAndRecordResponse{
+			Success: false,
+			Message: "Insufficient funds",
+		}, nil
+	}
+
+	_, err = tx.ExecContext(ctx, `UPDATE accounts SET balance = $1 WHERE id = $2`, newBalance, accountID)
+	if err != nil {
+		return nil, err
+	}
+
+	// Debits are stored as negative amounts, like the rest of the ledger
+	insertTxQuery := `
+		INSERT INTO transactions (account_id, transaction_type, amount, description, reference_number, balance_after, status)
+		VALUES ($1, 'debit', $2, $3, $4, $5, 'completed')
+		RETURNING id
+	`
+
+	var transactionID int
+	err = tx.QueryRowContext(ctx, insertTxQuery,
+		accountID, -request.Amount, request.Description, request.ReferenceNumber, newBalance).Scan(&transactionID)
+	if err != nil {
+		return nil, err
+	}
+
+	if err = tx.Commit(); err != nil {
+		return nil, err
+	}
+
+	return &DebitAndRecordResponse{
+		Success:       true,
+		AccountNumber: request.AccountNumber,
+		NewBalance:    newBalance,
+		TransactionID: transactionID,
+	}, nil
+}
+
 // Get recent transactions for user
 func getRecentTransactions(ctx context.Context, db *sql.DB, userID string) ([]Transaction, error) {
 	query := `
@@ -459,6 +585,32 @@ func accountsHandler(db *sql.DB) gin.HandlerFunc {
 	}
 }
 
+// Account balance handler (for internal service calls only, e.g. the payment service balance cache)
+func accountBalanceHandler(db *sql.DB) gin.HandlerFunc {
+	return func(c *gin.Context) {
+		accountNumber := c.Param("accountNumber")
+
+		balance, err := getAccountBalance(c.Request.Context(), db, accountNumber)
+		if err != nil {
+			if err == sql.ErrNoRows {
+				c.JSON(http.StatusNotFound, ErrorResponse{
+					Error:   "account_not_found",
+					Message: "Account not found or inactive",
+				})
+				return
+			}
+			log.Printf("Failed to get balance for account %s: %v", accountNumber, err)
+			c.JSON(http.StatusInternalServerError, ErrorResponse{
+				Error:   "database_error",
+				Message: "Failed to retrieve account balance",
+			})
+			return
+		}
+
+		c.JSON(http.StatusOK, balance)
+	}
+}
+
 // Update account balance handler (for internal service calls only)
 func updateBalanceHandler(db *sql.DB) gin.HandlerFunc {
 	return func(c *gin.Context) {
@@ -501,6 +653,49 @@ func updateBalanceHandler(db *sql.DB) gin.HandlerFunc {
 	}
 }
 
+// Debit-and-record handler (for internal service calls only)
+func debitAndRecordHandler(db *sql.DB) gin.HandlerFunc {
+	return func(c *gin.Context) {
+		var request DebitAndRecordRequest
+		if err := c.ShouldBindJSON(&request); err != nil {
+			c.JSON(http.StatusBadRequest, ErrorResponse{
+				Error:   "invalid_request",
+				Message: "Invalid request format: " + err.Error(),
+			})
+			return
+		}
+
+		response, err := debitAndRecord(c.Request.Context(), db, request)
+		if err != nil {
+			log.Printf("Failed to debit account %s: %v", request.AccountNumber, err)
+			c.JSON(http.StatusInternalServerError, ErrorResponse{
+				Error:   "database_error",
+				Message: "Failed to debit account",
+			})
+			return
+		}
+
+		if !response.Success {
+			log.Printf("Debit failed for account %s: %s", request.AccountNumber, response.Message)
+			c.JSON(http.StatusBadRequest, ErrorResponse{
+				Error:   "debit_failed",
+				Message: response.Message,
+			})
+			return
+		}
+
+		if response.Duplicate {
+			log.Printf("Debit for reference %s already recorded as transaction %d",
+				request.ReferenceNumber, response.TransactionID)
+		} else {
+			log.Printf("Debited account %s by %.2f: balance %.2f (txnId: %d)",
+				response.AccountNumber, request.Amount, response.NewBalance, response.TransactionID)
+		}
+
+		c.JSON(http.StatusOK, response)
+	}
+}
+
 // Create transaction handler
 func createTransactionHandler(db *sql.DB) gin.HandlerFunc {
 	return func(c *gin.Context) {
@@ -714,8 +909,10 @@ func main() {
 	internal.Use(jwtMiddleware(config.JWTSecret))
 	{
 		internal.GET("/accounts", accountsHandler(db))
+		internal.GET("/accounts/balance/:accountNumber", accountBalanceHandler(db))
 		internal.POST("/accounts/update-balance", updateBalanceHandler(db))
 		internal.POST("/accounts/create-transaction", createTransactionHandler(db))
+		internal.POST("/accounts/debit-and-record", debitAndRecordHandler(db))
 	}
 
 	port := config.Port
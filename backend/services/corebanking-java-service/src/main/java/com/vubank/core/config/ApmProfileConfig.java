@@ -0,0 +1,19 @@
+package com.vubank.core.config;
+
+import com.vubank.apm.ApmProfileEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes /actuator/apmprofile for the profile ApmBootstrap attached the agent with in main().
+ * Both classes come from backend/shared/apm-profile.
+ */
+@Configuration
+public class ApmProfileConfig {
+
+    @Bean
+    public ApmProfileEndpoint apmProfileEndpoint(@Value("${observability.apm-profile.switch-token:}") String switchToken) {
+        return new ApmProfileEndpoint(switchToken);
+    }
+}
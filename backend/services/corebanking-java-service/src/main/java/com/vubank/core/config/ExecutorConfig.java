@@ -0,0 +1,73 @@
+package com.vubank.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executor for payment processing (Postgres and accounts-service I/O), sized for blocking
+ * I/O rather than CPU cores, so payments no longer borrow ForkJoinPool.commonPool() threads.
+ * Spring Boot publishes its executor.* metrics under name=paymentProcessingExecutor.
+ *
+ * With spring.threads.virtual.enabled=true (which also moves Tomcat request handling onto virtual
+ * threads) each payment runs on its own virtual thread, so the accounts calls no longer pin a
+ * platform thread.
+ *
+ * The simulated settlement delay is not spent on either executor: paymentSettlementScheduler holds
+ * each waiting payment as a timer entry and hands it back to the processing executor when due.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${executor.payment-processing.threads:64}")
+    private int paymentProcessingThreads;
+
+    @Value("${executor.payment-processing.queue-capacity:1000}")
+    private int paymentProcessingQueueCapacity;
+
+    @Value("${executor.payment-processing.virtual.max-in-flight:-1}")
+    private int paymentProcessingVirtualMaxInFlight;
+
+    @Bean(name = "paymentSettlementScheduler", destroyMethod = "shutdown")
+    public ScheduledExecutorService paymentSettlementScheduler() {
+        // Only dispatches due stages, so one thread serves any number of waiting payments
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-settlement-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean(name = "paymentProcessingExecutor")
+    public AsyncTaskExecutor paymentProcessingExecutor() {
+        if (virtualThreadsEnabled) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-processing-");
+            executor.setVirtualThreads(true);
+            // -1 is unbounded; a positive limit makes the request thread wait rather than answer 503
+            executor.setConcurrencyLimit(paymentProcessingVirtualMaxInFlight);
+            executor.setTaskTerminationTimeout(30000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paymentProcessingThreads);
+        executor.setMaxPoolSize(paymentProcessingThreads);
+        executor.setQueueCapacity(paymentProcessingQueueCapacity);
+        executor.setThreadNamePrefix("payment-processing-");
+        // Reject when saturated; the controller answers 503 and the caller can retry
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,21 @@
+package com.vubank.core.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds Blackbird to the application ObjectMapper: bean properties and record components are read and
+ * written through generated lambdas instead of reflection. Spring Boot registers any Module bean.
+ *
+ * The payment service's JacksonConfig does the same.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
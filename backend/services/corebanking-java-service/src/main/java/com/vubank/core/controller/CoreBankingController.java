@@ -1,7 +1,15 @@
 package com.vubank.core.controller;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.vubank.core.model.CorePaymentRequest;
+import com.vubank.core.model.PaymentStatusView;
+import com.vubank.core.service.JwtTokenVerifier;
 import com.vubank.core.service.PaymentProcessingService;
-import io.jsonwebtoken.Jwts;
+import com.vubank.core.service.PaymentStatusService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -11,11 +19,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/core")
@@ -27,15 +43,27 @@ public class CoreBankingController {
     @Value("${security.shared-secret}")
     private String sharedSecret;
 
+    @Value("${processing.batch.max-size:500}")
+    private int maxBatchSize;
+
     private final PaymentProcessingService paymentProcessingService;
+    private final PaymentStatusService paymentStatusService;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ObjectReader paymentReader;
 
-    public CoreBankingController(PaymentProcessingService paymentProcessingService) {
+    public CoreBankingController(PaymentProcessingService paymentProcessingService,
+                                 PaymentStatusService paymentStatusService,
+                                 JwtTokenVerifier jwtTokenVerifier, ObjectMapper objectMapper) {
         this.paymentProcessingService = paymentProcessingService;
+        this.paymentStatusService = paymentStatusService;
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        // Deserializer resolved once here rather than per request by the message converter
+        this.paymentReader = objectMapper.readerFor(CorePaymentRequest.class);
     }
 
     @PostMapping(value = "/payments", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> processPayment(
-            @RequestBody Map<String, Object> paymentRequest,
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> processPayment(
+            @RequestBody byte[] body,
             @RequestHeader(value = "X-Request-Id") String xRequestId,
             @RequestHeader(value = "X-Origin-Service") String xOriginService,
             @RequestHeader(value = "X-Txn-Ref") String xTxnRef,
@@ -55,51 +83,208 @@ public class CoreBankingController {
             // Authorization check
             if (!isAuthorized(authorization)) {
                 logger.warn("Unauthorized payment processing request for xRequestId: {}", xRequestId);
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(createErrorResponse(xTxnRef, "UNAUTHORIZED", "Invalid authorization"));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse(xTxnRef, "UNAUTHORIZED", "Invalid authorization")));
             }
 
             // Header validation
             if (!"payment-process".equals(xOriginService)) {
                 logger.warn("Invalid origin service: {} for xRequestId: {}", xOriginService, xRequestId);
-                return ResponseEntity.badRequest()
-                    .body(createErrorResponse(xTxnRef, "INVALID_ORIGIN", "Invalid origin service"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse(xTxnRef, "INVALID_ORIGIN", "Invalid origin service")));
+            }
+
+            // Parsed here rather than by Spring so the original bytes can be stored as raw_json
+            CorePaymentRequest paymentRequest;
+            try {
+                paymentRequest = paymentReader.readValue(body);
+            } catch (IOException e) {
+                logger.warn("Malformed payment request for xRequestId: {}: {}", xRequestId, e.getMessage());
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse(xTxnRef, "INVALID_REQUEST", "Malformed JSON request body")));
+            }
+
+            // The Tomcat thread is released here; Spring MVC writes the response when processing completes
+            return paymentProcessingService.processPayment(paymentRequest, body, authorization)
+                .thenApply(result -> {
+                    logger.info("Payment processing completed for xRequestId: {} with status: {}", 
+                               xRequestId, result.getStatus());
+                    // UNKNOWN: the payer may have been debited; the caller has to look the payment up
+                    if ("UNKNOWN".equals(result.getStatus())) {
+                        return ResponseEntity.internalServerError().body(createSuccessResponse(result));
+                    }
+                    return ResponseEntity.ok(createSuccessResponse(result));
+                })
+                .exceptionally(e -> {
+                    logger.error("Error processing payment for xRequestId: {}", xRequestId, e);
+                    return ResponseEntity.internalServerError()
+                        .body(createErrorResponse(xTxnRef, "INTERNAL_ERROR", "Processing failed: " + e.getMessage()));
+                });
+
+        } catch (RejectedExecutionException e) {
+            logger.warn("Payment processing executor saturated, rejecting xRequestId: {}", xRequestId);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(createErrorResponse(xTxnRef, "BUSY", "Payment processing capacity exhausted, retry later")));
+        } finally {
+            // Clear MDC
+            MDC.clear();
+        }
+    }
+
+    @PostMapping(value = "/payments/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> processPaymentBatch(
+            @RequestBody byte[] body,
+            @RequestHeader(value = "X-Request-Id") String xRequestId,
+            @RequestHeader(value = "X-Origin-Service") String xOriginService,
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestHeader(value = "traceparent", required = false) String traceparent,
+            @RequestHeader(value = "tracestate", required = false) String tracestate) {
+
+        // Add context to MDC for logging
+        MDC.put("xRequestId", xRequestId);
+        MDC.put("xOriginService", xOriginService);
+
+        logger.info("Received payment batch of {} bytes for xRequestId: {}, origin: {}", 
+                   body.length, xRequestId, xOriginService);
+
+        try {
+            // One authorization check covers every payment in the batch
+            if (!isAuthorized(authorization)) {
+                logger.warn("Unauthorized payment batch request for xRequestId: {}", xRequestId);
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse(null, "UNAUTHORIZED", "Invalid authorization")));
+            }
+
+            if (!"payment-process".equals(xOriginService)) {
+                logger.warn("Invalid origin service: {} for xRequestId: {}", xOriginService, xRequestId);
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse(null, "INVALID_ORIGIN", "Invalid origin service")));
             }
 
-            // Process payment synchronously (as per the 1.5s simulation requirement)
-            CompletableFuture<PaymentProcessingService.ProcessingResult> futureResult = 
-                paymentProcessingService.processPayment(paymentRequest, authorization);
+            List<RawPayment> paymentRequests;
+            try {
+                paymentRequests = splitBatch(body);
+            } catch (IOException e) {
+                logger.warn("Malformed payment batch for xRequestId: {}: {}", xRequestId, e.getMessage());
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse(null, "INVALID_REQUEST", "Malformed JSON request body")));
+            }
 
-            PaymentProcessingService.ProcessingResult result = futureResult.get();
+            if (paymentRequests.isEmpty() || paymentRequests.size() > maxBatchSize) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse(null, "INVALID_BATCH", 
+                        "Batch must contain between 1 and " + maxBatchSize + " payments")));
+            }
 
-            Map<String, Object> response = createSuccessResponse(result);
-            
-            logger.info("Payment processing completed for xRequestId: {} with status: {}", 
-                       xRequestId, result.getStatus());
+            List<CompletableFuture<PaymentProcessingService.ProcessingResult>> futures = 
+                new ArrayList<>(paymentRequests.size());
+            for (RawPayment paymentRequest : paymentRequests) {
+                futures.add(processOrReject(paymentRequest, authorization));
+            }
 
-            return ResponseEntity.ok(response);
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    // Results are returned in request order so the caller can correlate by position
+                    List<Map<String, Object>> results = new ArrayList<>(futures.size());
+                    for (int i = 0; i < futures.size(); i++) {
+                        Map<String, Object> result = createSuccessResponse(futures.get(i).join());
+                        if (result.get("txnRef") == null) {
+                            UUID txnRef = paymentRequests.get(i).request.txnRef();
+                            result.put("txnRef", txnRef != null ? txnRef.toString() : null);
+                        }
+                        results.add(result);
+                    }
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("count", results.size());
+                    response.put("results", results);
+
+                    logger.info("Payment batch of {} completed for xRequestId: {}", results.size(), xRequestId);
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(e -> {
+                    logger.error("Error processing payment batch for xRequestId: {}", xRequestId, e);
+                    return ResponseEntity.internalServerError()
+                        .body(createErrorResponse(null, "INTERNAL_ERROR", "Batch processing failed: " + e.getMessage()));
+                });
 
-        } catch (Exception e) {
-            logger.error("Error processing payment for xRequestId: {}", xRequestId, e);
-            return ResponseEntity.internalServerError()
-                .body(createErrorResponse(xTxnRef, "INTERNAL_ERROR", "Processing failed: " + e.getMessage()));
         } finally {
             // Clear MDC
             MDC.clear();
         }
     }
 
+    /**
+     * Submits one batch element, turning executor saturation into a per-item rejection so the rest
+     * of the batch still completes.
+     */
+    private CompletableFuture<PaymentProcessingService.ProcessingResult> processOrReject(
+            RawPayment paymentRequest, String authorization) {
+        try {
+            return paymentProcessingService.processPayment(paymentRequest.request, paymentRequest.body, authorization);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(new PaymentProcessingService.ProcessingResult(
+                "REJECTED", null, null, null, "Payment processing capacity exhausted, retry later"));
+        }
+    }
+
+    /**
+     * Parses a JSON array of payments, keeping each element's exact bytes alongside its parsed form.
+     */
+    private List<RawPayment> splitBatch(byte[] body) throws IOException {
+        try (JsonParser parser = paymentReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of payments");
+            }
+            List<RawPayment> payments = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int start = (int) parser.currentTokenLocation().getByteOffset();
+                CorePaymentRequest request = paymentReader.readValue(parser);
+                int end = (int) parser.currentLocation().getByteOffset();
+                payments.add(new RawPayment(request, Arrays.copyOfRange(body, start, end)));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY || parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Expected only payment objects in the batch");
+            }
+            return payments;
+        }
+    }
+
     @GetMapping("/payments/{cbsId}")
-    public ResponseEntity<Map<String, Object>> getPaymentStatus(@PathVariable String cbsId) {
-        logger.info("Payment status request for cbsId: {}", cbsId);
-        
-        // This is optional for ops/debug as mentioned in requirements
-        Map<String, Object> response = new HashMap<>();
-        response.put("cbsId", cbsId);
-        response.put("status", "NOT_IMPLEMENTED");
-        response.put("message", "Status lookup by cbsId not implemented yet");
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> getPaymentStatus(
+            @PathVariable String cbsId,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        logger.debug("Payment status request for cbsId: {}", cbsId);
+        return lookupPaymentStatus(cbsId, authorization, paymentStatusService::findByCbsId);
+    }
+
+    @GetMapping("/payments/by-txn-ref/{txnRef}")
+    public ResponseEntity<Map<String, Object>> getPaymentStatusByTxnRef(
+            @PathVariable String txnRef,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        logger.debug("Payment status request for txnRef: {}", txnRef);
+        return lookupPaymentStatus(txnRef, authorization, paymentStatusService::findByTxnRef);
+    }
+
+    private ResponseEntity<Map<String, Object>> lookupPaymentStatus(
+            String id, String authorization, Function<UUID, Optional<PaymentStatusView>> lookup) {
+        if (!isAuthorized(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(createErrorResponse(null, "UNAUTHORIZED", "Invalid authorization"));
+        }
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse(null, "INVALID_REQUEST", "Payment id must be a UUID"));
+        }
+
+        return lookup.apply(uuid)
+            .map(view -> ResponseEntity.ok(createStatusResponse(view)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(createErrorResponse(null, "NOT_FOUND", "No payment recorded for " + id)));
     }
 
     @GetMapping("/health")
@@ -127,29 +312,12 @@ public class CoreBankingController {
             return true;
         }
         
-        // If not shared secret, validate as JWT token
-        boolean jwtValid = isValidJwtToken(token);
+        // If not shared secret, validate as JWT token (signature checked once per token, then cached)
+        boolean jwtValid = jwtTokenVerifier.isValid(token);
         logger.debug("JWT validation result: " + jwtValid);
         return jwtValid;
     }
     
-    private boolean isValidJwtToken(String token) {
-        try {
-            logger.debug("Attempting to validate JWT token: " + token.substring(0, Math.min(50, token.length())) + "...");
-            // Use the same JWT secret as accounts service
-            String jwtSecret = "vubank-super-secret-jwt-key-2023";
-            io.jsonwebtoken.Jwts.parserBuilder()
-                .setSigningKey(jwtSecret.getBytes(java.nio.charset.StandardCharsets.UTF_8))
-                .build()
-                .parseClaimsJws(token);
-            logger.debug("JWT token validation successful");
-            return true;
-        } catch (Exception e) {
-            logger.warn("JWT token validation failed: " + e.getMessage());
-            return false;
-        }
-    }
-
     private Map<String, Object> createSuccessResponse(PaymentProcessingService.ProcessingResult result) {
         Map<String, Object> response = new HashMap<>();
         response.put("status", result.getStatus());
@@ -160,13 +328,30 @@ public class CoreBankingController {
             if (result.getApprovedAt() != null) {
                 response.put("approvedAt", result.getApprovedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
             }
-        } else if ("REJECTED".equals(result.getStatus())) {
+        } else {
             response.put("reason", result.getReason());
         }
         
         return response;
     }
 
+    private Map<String, Object> createStatusResponse(PaymentStatusView view) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("cbsId", view.cbsId().toString());
+        response.put("txnRef", view.txnRef().toString());
+        response.put("status", view.status());
+        response.put("amount", view.amount());
+        response.put("paymentType", view.paymentType());
+        response.put("payerAccount", view.payerAccount());
+        response.put("payeeAccount", view.payeeAccount());
+        response.put("initiatedAt", view.initiatedAt() != null
+            ? view.initiatedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null);
+        if (view.approvedAt() != null) {
+            response.put("approvedAt", view.approvedAt().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        }
+        return response;
+    }
+
     private Map<String, Object> createErrorResponse(String txnRef, String status, String reason) {
         Map<String, Object> response = new HashMap<>();
         response.put("status", status);
@@ -174,4 +359,14 @@ public class CoreBankingController {
         response.put("reason", reason);
         return response;
     }
+
+    private static class RawPayment {
+        private final CorePaymentRequest request;
+        private final byte[] body;
+
+        RawPayment(CorePaymentRequest request, byte[] body) {
+            this.request = request;
+            this.body = body;
+        }
+    }
 }
\ No newline at end of file
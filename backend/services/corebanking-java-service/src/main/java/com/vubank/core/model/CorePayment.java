@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
@@ -12,8 +13,11 @@ import java.util.UUID;
 @Table(name = "core_payments")
 public class CorePayment {
 
+    // Pooled sequence ids (one nextval per 50 rows) keep Hibernate JDBC batching possible, which
+    // IDENTITY disables; CorePaymentWriter allocates from the same sequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "core_payments_id_seq")
+    @SequenceGenerator(name = "core_payments_id_seq", sequenceName = "core_payments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "cbs_id", nullable = false, unique = true)
@@ -55,6 +59,10 @@ public class CorePayment {
     @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
     private String rawJson;
 
+    // The request body exactly as received; written by CorePaymentWriter without decoding to a String
+    @Transient
+    private byte[] rawJsonBytes;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -79,6 +87,15 @@ public class CorePayment {
         this.initiatedAt = initiatedAt;
     }
 
+    // JPA saves (eager persistence mode) need the body as text
+    @PrePersist
+    @PreUpdate
+    void decodeRawJsonBytes() {
+        if (rawJson == null && rawJsonBytes != null) {
+            rawJson = new String(rawJsonBytes, StandardCharsets.UTF_8);
+        }
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -119,6 +136,9 @@ public class CorePayment {
     public String getRawJson() { return rawJson; }
     public void setRawJson(String rawJson) { this.rawJson = rawJson; }
 
+    public byte[] getRawJsonBytes() { return rawJsonBytes; }
+    public void setRawJsonBytes(byte[] rawJsonBytes) { this.rawJsonBytes = rawJsonBytes; }
+
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.vubank.core.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Version 1 of the payment contract posted to /core/payments and /core/payments/batch. The sending
+ * side is com.vubank.payment.model.CorePaymentRequest in payment-process, which must produce the
+ * same JSON shape. Fields may be added without a version change; renaming or retyping one needs a
+ * new version. Requests without a version predate it and are read as version 1.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CorePaymentRequest(
+        Integer version,
+        UUID txnRef,
+        String paymentType,
+        BigDecimal amount,
+        String currency,
+        Payer payer,
+        Payee payee,
+        Meta meta,
+        HeadersEcho headers) {
+
+    public static final int CURRENT_VERSION = 1;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Payer(String name, String accountNo, String accountType) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Payee(String name, String accountNo, String ifsc) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Meta(String branchName, OffsetDateTime initiatedAt, String comments) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record HeadersEcho(String xRequestId, String xApiClient) {}
+}
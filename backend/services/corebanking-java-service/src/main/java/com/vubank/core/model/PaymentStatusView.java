@@ -0,0 +1,34 @@
+package com.vubank.core.model;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Status fields of a core_payments row, read by projection so lookups never load raw_json.
+ */
+public record PaymentStatusView(
+        UUID cbsId,
+        UUID txnRef,
+        String status,
+        BigDecimal amount,
+        String paymentType,
+        String payerAccount,
+        String payeeAccount,
+        OffsetDateTime initiatedAt,
+        OffsetDateTime approvedAt) {
+
+    public static PaymentStatusView of(CorePayment payment) {
+        return new PaymentStatusView(payment.getCbsId(), payment.getTxnRef(), payment.getStatus(),
+            payment.getAmount(), payment.getPaymentType(), payment.getPayerAccount(), payment.getPayeeAccount(),
+            payment.getInitiatedAt(), payment.getApprovedAt());
+    }
+
+    /**
+     * Final statuses never change once written, so views in these states can be cached indefinitely.
+     */
+    public boolean isTerminal() {
+        return "APPROVED".equals(status) || "REJECTED".equals(status)
+            || "APPROVED_BALANCE_UPDATE_FAILED".equals(status);
+    }
+}
@@ -1,7 +1,9 @@
 package com.vubank.core.repository;
 
 import com.vubank.core.model.CorePayment;
+import com.vubank.core.model.PaymentStatusView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,4 +17,13 @@ public interface CorePaymentRepository extends JpaRepository<CorePayment, Long>
     Optional<CorePayment> findByCbsId(UUID cbsId);
     
     boolean existsByTxnRef(UUID txnRef);
+
+    String STATUS_VIEW_SELECT = "select new com.vubank.core.model.PaymentStatusView(p.cbsId, p.txnRef, p.status, "
+        + "p.amount, p.paymentType, p.payerAccount, p.payeeAccount, p.initiatedAt, p.approvedAt) from CorePayment p ";
+
+    @Query(STATUS_VIEW_SELECT + "where p.cbsId = :cbsId")
+    Optional<PaymentStatusView> findStatusByCbsId(UUID cbsId);
+
+    @Query(STATUS_VIEW_SELECT + "where p.txnRef = :txnRef")
+    Optional<PaymentStatusView> findStatusByTxnRef(UUID txnRef);
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.vubank.core.repository;
+
+import com.vubank.core.model.CorePayment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Plain JDBC writes for the write-once persistence mode: each payment reaches core_payments as a
+ * single INSERT of its final state, and a txn_ref already present is skipped by the unique
+ * constraint (ON CONFLICT DO NOTHING) rather than a separate existence query. Any number of rows
+ * go in one multi-row statement, whose RETURNING clause reports which of them were new.
+ *
+ * raw_json is bound as the request's original UTF-8 bytes and converted to jsonb by the server, so
+ * the body is never decoded to a String or re-serialized here. Bodies larger than
+ * processing.persistence.raw-json.offload-threshold-bytes go gzip-compressed into
+ * core_payment_raw_payloads, written by the same statement, and leave raw_json NULL.
+ *
+ * Ids come from core_payments_id_seq in blocks, the same pooled scheme Hibernate uses for
+ * {@link CorePayment}: each nextval reserves the increment-sized block ending at the value returned.
+ *
+ * The optional intent log (core_payment_intents) durably claims a txnRef before processing starts
+ * and is cleared by the final insert, so a crash in between leaves a row that
+ * {@link #recoverStaleIntents(OffsetDateTime)} turns into a PROCESSING payment on the next start. If
+ * the intent's owner was only slow rather than dead, its final insert still lands by upgrading that
+ * PROCESSING row.
+ */
+@Repository
+public class CorePaymentWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorePaymentWriter.class);
+
+    private static final String INSERT_PAYMENTS =
+        "INSERT INTO core_payments (id, cbs_id, txn_ref, status, amount, payer_account, payee_account, ifsc, " +
+        "payment_type, initiated_at, approved_at, comments, raw_json, created_at) VALUES ";
+    private static final String PAYMENT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, convert_from(?, 'UTF8')::jsonb, ?)";
+    private static final int PAYMENT_COLUMNS = 14;
+
+    // A row recovered from this payment's own intent (same cbs_id, still PROCESSING) takes the final
+    // state; any other existing row for the txnRef is left alone and the payment is reported as a duplicate
+    private static final String UPGRADE_RECOVERED =
+        " ON CONFLICT (txn_ref) DO UPDATE SET status = EXCLUDED.status, approved_at = EXCLUDED.approved_at " +
+        "WHERE core_payments.status = 'PROCESSING' AND core_payments.cbs_id = EXCLUDED.cbs_id";
+
+    private static final String ID_SEQUENCE = "core_payments_id_seq";
+
+    // A txnRef is claimable only if no payment row exists for it and no other intent holds it
+    private static final String CLAIM_INTENT =
+        "INSERT INTO core_payment_intents (txn_ref, cbs_id, raw_json, created_at) " +
+        "SELECT ?, ?, convert_from(?, 'UTF8')::jsonb, ? WHERE NOT EXISTS (SELECT 1 FROM core_payments WHERE txn_ref = ?) " +
+        "ON CONFLICT (txn_ref) DO NOTHING";
+
+    private static final String RECOVER_STALE_INTENTS =
+        "WITH stale AS (DELETE FROM core_payment_intents WHERE created_at < ? " +
+        "RETURNING txn_ref, cbs_id, raw_json, created_at) " +
+        "INSERT INTO core_payments (id, cbs_id, txn_ref, status, amount, payer_account, payee_account, ifsc, " +
+        "payment_type, initiated_at, comments, raw_json, created_at) " +
+        "SELECT nextval('core_payments_id_seq'), cbs_id, txn_ref, 'PROCESSING', (raw_json->>'amount')::numeric, " +
+        "COALESCE(raw_json->'payer'->>'accountNo', ''), COALESCE(raw_json->'payee'->>'accountNo', ''), " +
+        "COALESCE(raw_json->'payee'->>'ifsc', ''), COALESCE(raw_json->>'paymentType', ''), " +
+        "COALESCE((raw_json->'meta'->>'initiatedAt')::timestamptz, created_at), " +
+        "raw_json->'meta'->>'comments', raw_json, created_at FROM stale " +
+        "ON CONFLICT (txn_ref) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int rawJsonOffloadThreshold;
+
+    // Current id block; guarded by this
+    private long nextId = 1;
+    private long idBlockEnd = 0;
+    private volatile Long idIncrement;
+
+    public CorePaymentWriter(JdbcTemplate jdbcTemplate,
+                             @Value("${processing.persistence.raw-json.offload-threshold-bytes:16384}") int rawJsonOffloadThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rawJsonOffloadThreshold = rawJsonOffloadThreshold;
+    }
+
+    /**
+     * Inserts the final rows of the given payments in one statement, skipping txnRefs that already
+     * have a row, and returns the txnRefs actually written. A PROCESSING row recovered from the same
+     * payment's intent counts as written: it is updated to the final status. With releaseIntents the payments'
+     * intent log entries are deleted by the same statement.
+     */
+    public Set<UUID> insertAllIfAbsent(List<CorePayment> payments, boolean releaseIntents) {
+        StringBuilder sql = new StringBuilder(256 + payments.size() * (PAYMENT_ROW.length() + 4));
+        List<Object> args = new ArrayList<>(payments.size() * (PAYMENT_COLUMNS + 1));
+        List<Object> offloadArgs = new ArrayList<>();
+
+        sql.append("WITH inserted AS (").append(INSERT_PAYMENTS);
+        for (int i = 0; i < payments.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(PAYMENT_ROW);
+            addPaymentArgs(args, offloadArgs, payments.get(i));
+        }
+        sql.append(UPGRADE_RECOVERED).append(" RETURNING txn_ref)");
+        if (!offloadArgs.isEmpty()) {
+            // Joined to inserted so a duplicate's payload never replaces the original's
+            sql.append(", offloaded AS (INSERT INTO core_payment_raw_payloads (txn_ref, encoding, payload) ")
+                .append("SELECT p.txn_ref, 'gzip', p.payload FROM (VALUES ");
+            for (int i = 0; i < offloadArgs.size(); i += 2) {
+                sql.append(i == 0 ? "" : ", ").append("(CAST(? AS uuid), CAST(? AS bytea))");
+            }
+            sql.append(") AS p (txn_ref, payload) JOIN inserted USING (txn_ref))");
+            args.addAll(offloadArgs);
+        }
+        if (releaseIntents) {
+            sql.append(", released AS (DELETE FROM core_payment_intents WHERE txn_ref IN (");
+            for (int i = 0; i < payments.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                args.add(payments.get(i).getTxnRef());
+            }
+            sql.append("))");
+        }
+        sql.append(" SELECT txn_ref FROM inserted");
+
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), UUID.class, args.toArray()));
+    }
+
+    /**
+     * Records the intent to process a payment, returning false if its txnRef is already processed
+     * or being processed.
+     */
+    public boolean claimIntent(CorePayment payment) {
+        return jdbcTemplate.update(CLAIM_INTENT, payment.getTxnRef(), payment.getCbsId(), rawJsonBytes(payment),
+            OffsetDateTime.now(), payment.getTxnRef()) == 1;
+    }
+
+    /**
+     * Turns intents older than cutoff, left behind by an instance that stopped mid-payment, into
+     * PROCESSING payments for follow-up, exactly as the eager mode would have left them.
+     */
+    public int recoverStaleIntents(OffsetDateTime cutoff) {
+        int recovered = jdbcTemplate.update(RECOVER_STALE_INTENTS, cutoff);
+        if (recovered > 0) {
+            logger.warn("Recovered {} interrupted payments from the intent log as PROCESSING", recovered);
+        }
+        return recovered;
+    }
+
+    private void addPaymentArgs(List<Object> args, List<Object> offloadArgs, CorePayment payment) {
+        if (payment.getId() == null) {
+            payment.setId(nextId());
+        }
+        if (payment.getCreatedAt() == null) {
+            payment.setCreatedAt(OffsetDateTime.now());
+        }
+        byte[] rawJson = rawJsonBytes(payment);
+        if (rawJson != null && rawJsonOffloadThreshold > 0 && rawJson.length > rawJsonOffloadThreshold) {
+            Collections.addAll(offloadArgs, payment.getTxnRef(), gzip(rawJson));
+            rawJson = null;
+        }
+        Collections.addAll(args,
+            payment.getId(), payment.getCbsId(), payment.getTxnRef(), payment.getStatus(), payment.getAmount(),
+            payment.getPayerAccount(), payment.getPayeeAccount(), payment.getIfsc(), payment.getPaymentType(),
+            payment.getInitiatedAt(), payment.getApprovedAt(), payment.getComments(), rawJson,
+            payment.getCreatedAt());
+    }
+
+    private static byte[] rawJsonBytes(CorePayment payment) {
+        if (payment.getRawJsonBytes() != null) {
+            return payment.getRawJsonBytes();
+        }
+        return payment.getRawJson() != null ? payment.getRawJson().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private synchronized long nextId() {
+        if (nextId > idBlockEnd) {
+            long increment = idIncrement();
+            long hi;
+            do {
+                hi = jdbcTemplate.queryForObject("SELECT nextval('" + ID_SEQUENCE + "')", Long.class);
+            } while (hi < increment); // a fresh sequence's first value cannot end a full block
+            nextId = hi - increment + 1;
+            idBlockEnd = hi;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Block size, read from the sequence itself so this writer and Hibernate (which adopts the
+     * sequence's increment, see hibernate.id.sequence.increment_size_mismatch_strategy) always agree.
+     */
+    private long idIncrement() {
+        if (idIncrement == null) {
+            idIncrement = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class, ID_SEQUENCE);
+        }
+        return idIncrement;
+    }
+}
@@ -6,24 +6,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
-
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 @Service
 public class AccountsService {
 
@@ -32,48 +21,24 @@ public class AccountsService {
     @Value("${accounts.service.url:http://accounts-go-service:8002}")
     private String accountsServiceUrl;
 
-    @Value("${accounts.service.jwt.secret:vubank-super-secret-jwt-key-2023}")
-    private String jwtSecret;
-
     private final RestTemplate restTemplate;
+    private final ServiceTokenProvider serviceTokenProvider;
 
-    public AccountsService(RestTemplate restTemplate) {
+    public AccountsService(RestTemplate restTemplate, ServiceTokenProvider serviceTokenProvider) {
         this.restTemplate = restTemplate;
+        this.serviceTokenProvider = serviceTokenProvider;
     }
 
     /**
-     * Generate a JWT token for internal service communication
-     */
-    private String generateServiceToken() {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("user_id", "corebanking-service");
-            claims.put("roles", List.of("retail"));
-            
-            return Jwts.builder()
-                .setClaims(claims)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 3600000)) // 1 hour
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
-        } catch (Exception e) {
-            logger.error("Failed to generate JWT token", e);
-            return null;
-        }
-    }
-
-    /**
-     * Update account balance by debiting the specified amount
+     * Debit the account and record the ledger entry in a single call. The accounts service
+     * de-duplicates by referenceNumber, so repeating a debit returns the original entry.
      */
-    public boolean debitAccount(String accountNumber, BigDecimal amount, String referenceNumber, String description, String userAuthorization) {
+    public DebitResult debitAndRecord(String accountNumber, BigDecimal amount, String referenceNumber, String description, String userAuthorization) {
         try {
             // Create request payload
             Map<String, Object> request = new HashMap<>();
             request.put("accountNumber", accountNumber);
-            request.put("amount", amount.negate().doubleValue()); // Negative for debit
-            request.put("transactionType", "DEBIT");
+            request.put("amount", amount.doubleValue()); // Positive; the accounts service debits it
             request.put("referenceNumber", referenceNumber);
             request.put("description", description);
 
@@ -85,21 +50,15 @@ public class AccountsService {
                 headers.set("Authorization", userAuthorization);
                 logger.debug("Using user JWT token for debit account call");
             } else {
-                // Fallback to service token generation if no user token provided
-                String jwtToken = generateServiceToken();
-                if (jwtToken != null) {
-                    headers.setBearerAuth(jwtToken);
-                    logger.debug("Using generated JWT token for debit account call");
-                } else {
-                    logger.warn("Failed to generate JWT token for debit, using fallback secret");
-                    headers.setBearerAuth(jwtSecret);
-                }
+                // Fall back to the cached service token if no user token provided
+                headers.setBearerAuth(serviceTokenProvider.getToken());
+                logger.debug("Using service JWT token for debit account call");
             }
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
 
             // Make API call
-            String url = accountsServiceUrl + "/internal/accounts/update-balance";
+            String url = accountsServiceUrl + "/internal/accounts/debit-and-record";
             logger.info("Calling accounts service to debit account {} with amount {}: {}", 
                        accountNumber, amount, url);
 
@@ -110,53 +69,38 @@ public class AccountsService {
                 Map.class
             );
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                Boolean success = (Boolean) responseBody.get("success");
-                
-                if (Boolean.TRUE.equals(success)) {
-                    // Handle numeric types safely - they might come as different types from JSON
-                    Number oldBalanceNum = (Number) responseBody.get("oldBalance");
-                    Number newBalanceNum = (Number) responseBody.get("newBalance");
-                    Number transactionIdNum = (Number) responseBody.get("transactionId");
-                    
-                    Double oldBalance = oldBalanceNum.doubleValue();
-                    Double newBalance = newBalanceNum.doubleValue();
-                    Integer transactionId = transactionIdNum.intValue();
-                    
-                    logger.info("Successfully debited account {}: {} -> {} (txnId: {})", 
-                               accountNumber, oldBalance, newBalance, transactionId);
-                    
-                    // Now call recordTransaction to log this in user's transaction history
-                    try {
-                        String transactionType = amount.compareTo(BigDecimal.ZERO) < 0 ? "debit" : "credit";
-                        BigDecimal transactionAmount = amount.abs();
-                        BigDecimal balanceAfter = BigDecimal.valueOf(newBalance);
-                        
-                        recordTransaction(accountNumber, transactionType, 
-                                       transactionAmount, description, referenceNumber, balanceAfter, 
-                                       "completed", userAuthorization);
-                        logger.info("Successfully recorded transaction for account {}", accountNumber);
-                    } catch (Exception e) {
-                        logger.error("Failed to record transaction for account {} but balance was updated: {}", 
-                                   accountNumber, e.getMessage());
-                        // Don't fail the entire operation since balance was already updated
-                    }
-                    
-                    return true;
+            Map<String, Object> responseBody = response.getBody();
+            if (response.getStatusCode() == HttpStatus.OK && responseBody != null
+                    && Boolean.TRUE.equals(responseBody.get("success"))) {
+                // Handle numeric types safely - they might come as different types from JSON
+                Number newBalanceNum = (Number) responseBody.get("newBalance");
+                Number transactionIdNum = (Number) responseBody.get("transactionId");
+                boolean duplicate = Boolean.TRUE.equals(responseBody.get("duplicate"));
+
+                BigDecimal newBalance = newBalanceNum != null ? BigDecimal.valueOf(newBalanceNum.doubleValue()) : null;
+                Integer transactionId = transactionIdNum != null ? transactionIdNum.intValue() : null;
+
+                if (duplicate) {
+                    logger.info("Debit for reference {} was already recorded on account {} (txnId: {})", 
+                               referenceNumber, accountNumber, transactionId);
                 } else {
-                    String message = (String) responseBody.get("message");
-                    logger.warn("Failed to debit account {}: {}", accountNumber, message);
-                    return false;
+                    logger.info("Successfully debited account {}: balance {} (txnId: {})", 
+                               accountNumber, newBalance, transactionId);
                 }
-            } else {
-                logger.error("Accounts service returned status {}", response.getStatusCode());
-                return false;
+                return new DebitResult(true, newBalance, transactionId, duplicate, null);
             }
 
+            logger.error("Accounts service returned status {} for debit of account {}", 
+                       response.getStatusCode(), accountNumber);
+            return DebitResult.failed("Unexpected response from accounts service");
+
+        } catch (HttpStatusCodeException e) {
+            // Rejections such as insufficient funds come back as 4xx with an error body
+            logger.warn("Failed to debit account {}: {} {}", accountNumber, e.getStatusCode(), e.getResponseBodyAsString());
+            return DebitResult.failed(e.getResponseBodyAsString());
         } catch (Exception e) {
             logger.error("Error calling accounts service to debit account {}", accountNumber, e);
-            return false;
+            return DebitResult.failed(e.getMessage());
         }
     }
 
@@ -173,10 +117,10 @@ public class AccountsService {
             request.put("referenceNumber", referenceNumber);
             request.put("description", description);
 
-            // Create headers with JWT token
+            // Create headers with the service JWT token
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(jwtSecret);
+            headers.setBearerAuth(serviceTokenProvider.getToken());
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
 
@@ -250,15 +194,9 @@ public class AccountsService {
                 headers.set("Authorization", userAuthorization);
                 logger.debug("Using user JWT token for record transaction call");
             } else {
-                // Fallback to service token generation if no user token provided
-                String jwtToken = generateServiceToken();
-                if (jwtToken != null) {
-                    headers.setBearerAuth(jwtToken);
-                    logger.debug("Using generated JWT token for record transaction call");
-                } else {
-                    logger.warn("Failed to generate JWT token for transaction recording, using fallback secret");
-                    headers.setBearerAuth(jwtSecret);
-                }
+                // Fall back to the cached service token if no user token provided
+                headers.setBearerAuth(serviceTokenProvider.getToken());
+                logger.debug("Using service JWT token for record transaction call");
             }
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
@@ -303,4 +241,15 @@ public class AccountsService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Outcome of {@link #debitAndRecord}; newBalance and transactionId are set when it succeeded.
+     */
+    public record DebitResult(boolean success, BigDecimal newBalance, Integer transactionId,
+                              boolean duplicate, String message) {
+
+        static DebitResult failed(String message) {
+            return new DebitResult(false, null, null, false, message);
+        }
+    }
+}
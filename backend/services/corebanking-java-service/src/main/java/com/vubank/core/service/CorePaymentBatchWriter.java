@@ -0,0 +1,186 @@
+package com.vubank.core.service;
+
+import com.vubank.core.model.CorePayment;
+import com.vubank.core.repository.CorePaymentWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups the final core_payments rows of concurrent payments into multi-row inserts. A row is
+ * written straight away while a writer thread is free; once all writers are busy, rows queue up and
+ * the next free writer takes up to {@code processing.persistence.batch.max-size} of them in one
+ * statement, so batches grow with load instead of adding latency when idle. With
+ * {@code processing.persistence.batch.max-wait-ms} above zero, a partial batch instead waits up to
+ * that long for more rows. Each caller's future completes once the statement holding its row has
+ * committed, with true if the row was inserted and false if its txnRef already had one.
+ */
+@Component
+public class CorePaymentBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorePaymentBatchWriter.class);
+
+    private final CorePaymentWriter corePaymentWriter;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitMs;
+    private final boolean intentLogEnabled;
+    private final int writerThreads;
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService writerExecutor;
+
+    // Guards pending, activeWriters and flushScheduled; held only to hand rows over, never during I/O
+    private final Object lock = new Object();
+    private final ArrayDeque<PendingRow> pending = new ArrayDeque<>();
+    private int activeWriters;
+    private boolean flushScheduled;
+
+    public CorePaymentBatchWriter(CorePaymentWriter corePaymentWriter,
+                                  @Value("${processing.persistence.batch.enabled:true}") boolean enabled,
+                                  @Value("${processing.persistence.batch.max-size:100}") int maxBatchSize,
+                                  @Value("${processing.persistence.batch.max-wait-ms:0}") long maxWaitMs,
+                                  @Value("${processing.persistence.intent-log.enabled:false}") boolean intentLogEnabled,
+                                  @Value("${processing.persistence.batch.writer-threads:4}") int writerThreads) {
+        this.corePaymentWriter = corePaymentWriter;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMs = maxWaitMs;
+        this.intentLogEnabled = intentLogEnabled;
+        this.writerThreads = writerThreads;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "core-payment-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bounded by the connection pool anyway; a few writers keep one slow commit from stalling the rest
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writerExecutor = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "core-payment-batch-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        List<PendingRow> remaining;
+        synchronized (lock) {
+            remaining = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        writerExecutor.shutdown();
+        try {
+            writerExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues one payment's final row and returns a future completed once it is durable.
+     */
+    public CompletableFuture<Boolean> submit(CorePayment payment) {
+        PendingRow row = new PendingRow(payment);
+        synchronized (lock) {
+            pending.add(row);
+            if (pending.size() < maxBatchSize && maxWaitMs > 0) {
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    flushScheduler.schedule(this::flushAfterWait, maxWaitMs, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                dispatchLocked();
+            }
+        }
+        return row.future;
+    }
+
+    private void flushAfterWait() {
+        synchronized (lock) {
+            flushScheduled = false;
+            dispatchLocked();
+        }
+    }
+
+    /**
+     * Hands queued rows to free writers; rows left over wait for the next writer to finish.
+     */
+    private void dispatchLocked() {
+        while (!pending.isEmpty() && activeWriters < writerThreads) {
+            List<PendingRow> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+            while (!pending.isEmpty() && batch.size() < maxBatchSize) {
+                batch.add(pending.poll());
+            }
+            activeWriters++;
+            writerExecutor.execute(() -> writeAndContinue(batch));
+        }
+    }
+
+    private void writeAndContinue(List<PendingRow> batch) {
+        try {
+            write(batch);
+        } finally {
+            synchronized (lock) {
+                activeWriters--;
+                dispatchLocked();
+            }
+        }
+    }
+
+    private void write(List<PendingRow> batch) {
+        List<CorePayment> payments = new ArrayList<>(batch.size());
+        for (PendingRow row : batch) {
+            payments.add(row.payment);
+        }
+
+        try {
+            Set<UUID> inserted = corePaymentWriter.insertAllIfAbsent(payments, intentLogEnabled);
+            for (PendingRow row : batch) {
+                row.future.complete(inserted.contains(row.payment.getTxnRef()));
+            }
+            logger.debug("Wrote {} of {} core payment rows in one statement", inserted.size(), batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // One bad row fails the whole statement; write the rows one by one so only it fails
+            logger.warn("Batch insert of {} core payment rows failed, retrying individually: {}",
+                batch.size(), e.getMessage());
+            for (PendingRow row : batch) {
+                write(List.of(row));
+            }
+        }
+    }
+
+    private static class PendingRow {
+        private final CorePayment payment;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        PendingRow(CorePayment payment) {
+            this.payment = payment;
+        }
+    }
+}
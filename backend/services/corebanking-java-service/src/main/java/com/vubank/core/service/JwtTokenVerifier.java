@@ -0,0 +1,169 @@
+package com.vubank.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies user JWTs on incoming payment calls. The key and parser are built once from
+ * {@code security.jwt.secret}. A verified token is cached under its SHA-256 hash until its exp
+ * claim, so the signature of a token that arrives on every payment of a session is checked once;
+ * tokens that fail are cached as rejected for {@code security.jwt.cache.negative-ttl-ms}.
+ * {@link #revoke} and {@link #revokeUser} take tokens out of service before they expire. Cache
+ * statistics are published as cache.* metrics (cache=jwt-verification).
+ */
+@Component
+public class JwtTokenVerifier implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenVerifier.class);
+
+    private final JwtParser parser;
+    private final long negativeTtlNanos;
+    private final long maxTtlNanos;
+    private final Cache<String, Verdict> verdicts;
+    // Revocations are rare and must not be evicted by size, so they live outside the bounded cache
+    private final Cache<String, Long> revokedTokens;
+    private final ConcurrentHashMap<String, Long> usersRevokedBeforeMs = new ConcurrentHashMap<>();
+
+    public JwtTokenVerifier(@Value("${security.jwt.secret:vubank-super-secret-jwt-key-2023}") String jwtSecret,
+                            @Value("${security.jwt.cache.max-size:10000}") long maxSize,
+                            @Value("${security.jwt.cache.negative-ttl-ms:30000}") long negativeTtlMs,
+                            @Value("${security.jwt.cache.max-ttl-ms:3600000}") long maxTtlMs) {
+        this.parser = Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+            .build();
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        this.verdicts = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new VerdictExpiry())
+            .recordStats()
+            .build();
+        this.revokedTokens = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Long>() {
+                @Override
+                public long expireAfterCreate(String key, Long expiresAtMs, long currentTime) {
+                    return untilNanos(expiresAtMs);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Long expiresAtMs, long currentTime, long currentDuration) {
+                    return untilNanos(expiresAtMs);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Long expiresAtMs, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verdicts, "jwt-verification");
+    }
+
+    public boolean isValid(String token) {
+        String key = hash(token);
+        Verdict verdict = verdicts.get(key, k -> verify(token));
+        if (!verdict.valid() || verdict.expiresAtMs() <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (revokedTokens.getIfPresent(key) != null) {
+            return false;
+        }
+        Long revokedBeforeMs = verdict.userId() != null ? usersRevokedBeforeMs.get(verdict.userId()) : null;
+        return revokedBeforeMs == null || verdict.issuedAtMs() >= revokedBeforeMs;
+    }
+
+    /**
+     * Rejects this token from now until it expires, e.g. after the session it belongs to logs out.
+     */
+    public void revoke(String token) {
+        String key = hash(token);
+        Verdict verdict = verdicts.get(key, k -> verify(token));
+        long expiresAtMs = verdict.valid()
+            ? verdict.expiresAtMs()
+            : System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(maxTtlNanos);
+        revokedTokens.put(key, expiresAtMs);
+    }
+
+    /**
+     * Rejects every token of this user issued before the given instant.
+     */
+    public void revokeUser(String userId, Instant issuedBefore) {
+        usersRevokedBeforeMs.merge(userId, issuedBefore.toEpochMilli(), Math::max);
+    }
+
+    private Verdict verify(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            Date issuedAt = claims.getIssuedAt();
+            long expiresAtMs = expiration != null
+                ? expiration.getTime()
+                : System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(maxTtlNanos);
+            return new Verdict(true, expiresAtMs, issuedAt != null ? issuedAt.getTime() : 0L,
+                claims.get("user_id", String.class));
+        } catch (Exception e) {
+            logger.warn("JWT token validation failed: " + e.getMessage());
+            return Verdict.REJECTED;
+        }
+    }
+
+    private long untilNanos(long expiresAtMs) {
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(expiresAtMs - System.currentTimeMillis()), 0L);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private class VerdictExpiry implements Expiry<String, Verdict> {
+
+        @Override
+        public long expireAfterCreate(String key, Verdict verdict, long currentTime) {
+            return verdict.valid() ? Math.min(untilNanos(verdict.expiresAtMs()), maxTtlNanos) : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Verdict verdict, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verdict, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Verdict verdict, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private record Verdict(boolean valid, long expiresAtMs, long issuedAtMs, String userId) {
+        static final Verdict REJECTED = new Verdict(false, 0L, 0L, null);
+    }
+}
@@ -1,26 +1,43 @@
 package com.vubank.core.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.vubank.core.model.CorePayment;
+import com.vubank.core.model.CorePaymentRequest;
+import com.vubank.core.model.PaymentStatusView;
 import com.vubank.core.repository.CorePaymentRepository;
+import com.vubank.core.repository.CorePaymentWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes CoreBanking payments. In the default write-once persistence mode the payment's
+ * lifecycle stays in memory and core_payments gets one INSERT of the final state; the eager mode
+ * saves every status change through JPA as before. See {@link CorePaymentWriter} for the
+ * optional intent log that keeps crash recovery in write-once mode.
+ */
 @Service
 public class PaymentProcessingService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentProcessingService.class);
+    private static final long SETTLEMENT_RETRY_MS = 50;
 
     @Value("${processing.simulation.delay.ms:1500}")
     private long processingDelayMs;
@@ -28,190 +45,330 @@ public class PaymentProcessingService {
     @Value("${processing.default.account.type:SAVINGS}")
     private String defaultAccountType;
 
+    @Value("${processing.persistence.intent-log.enabled:false}")
+    private boolean intentLogEnabled;
+
+    @Value("${processing.persistence.intent-log.recovery-after-ms:300000}")
+    private long intentRecoveryAfterMs;
+
     private final CorePaymentRepository corePaymentRepository;
-    private final ObjectMapper objectMapper;
+    private final CorePaymentWriter corePaymentWriter;
+    private final CorePaymentBatchWriter corePaymentBatchWriter;
+    private final PaymentStatusService paymentStatusService;
     private final AccountsService accountsService;
-
-    public PaymentProcessingService(CorePaymentRepository corePaymentRepository, AccountsService accountsService) {
+    private final Executor paymentProcessingExecutor;
+    private final ScheduledExecutorService settlementScheduler;
+    private final boolean eagerPersistence;
+    private final Set<UUID> inFlightTxnRefs = ConcurrentHashMap.newKeySet();
+
+    public PaymentProcessingService(CorePaymentRepository corePaymentRepository, CorePaymentWriter corePaymentWriter,
+                                    CorePaymentBatchWriter corePaymentBatchWriter, PaymentStatusService paymentStatusService,
+                                    AccountsService accountsService,
+                                    @Qualifier("paymentProcessingExecutor") Executor paymentProcessingExecutor,
+                                    @Qualifier("paymentSettlementScheduler") ScheduledExecutorService settlementScheduler,
+                                    @Value("${processing.persistence.mode:write-once}") String persistenceMode) {
         this.corePaymentRepository = corePaymentRepository;
+        this.corePaymentWriter = corePaymentWriter;
+        this.corePaymentBatchWriter = corePaymentBatchWriter;
+        this.paymentStatusService = paymentStatusService;
         this.accountsService = accountsService;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.paymentProcessingExecutor = paymentProcessingExecutor;
+        this.settlementScheduler = settlementScheduler;
+        this.eagerPersistence = "eager".equalsIgnoreCase(persistenceMode);
     }
 
-    public CompletableFuture<ProcessingResult> processPayment(Map<String, Object> paymentRequest, String userAuthorization) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Extract and validate payment data
-                PaymentData paymentData = extractPaymentData(paymentRequest);
-                
-                // Check for duplicate txnRef
-                if (corePaymentRepository.existsByTxnRef(paymentData.getTxnRef())) {
-                    logger.warn("Duplicate transaction detected for txnRef: {}", paymentData.getTxnRef());
-                    return new ProcessingResult("REJECTED", paymentData.getTxnRef(), null, null, 
-                        "Duplicate transaction reference");
-                }
-
-                // Create CorePayment entity
-                CorePayment corePayment = createCorePayment(paymentData);
-                
-                // Store raw JSON
-                try {
-                    corePayment.setRawJson(objectMapper.writeValueAsString(paymentRequest));
-                } catch (JsonProcessingException e) {
-                    logger.warn("Failed to serialize raw JSON for txnRef: {}", paymentData.getTxnRef(), e);
-                }
-
-                // Save initial state
-                corePayment.setStatus("PROCESSING");
-                corePayment = corePaymentRepository.save(corePayment);
-                
-                logger.info("Started processing payment for txnRef: {} with cbsId: {}", 
-                           paymentData.getTxnRef(), corePayment.getCbsId());
-
-                // Simulate processing delay
-                simulateProcessingDelay();
-
-                // Business validation (simplified for demo)
-                if (paymentData.getAmount().compareTo(new BigDecimal("100000")) > 0) {
-                    corePayment.setStatus("REJECTED");
-                    corePaymentRepository.save(corePayment);
-                    
-                    logger.warn("Payment rejected for txnRef: {} - Amount exceeds limit", paymentData.getTxnRef());
-                    return new ProcessingResult("REJECTED", paymentData.getTxnRef(), 
-                        corePayment.getCbsId(), null, "Amount exceeds transaction limit");
-                }
-
-                // Approve payment
-                OffsetDateTime approvedAt = OffsetDateTime.now();
-                corePayment.setStatus("APPROVED");
-                corePayment.setApprovedAt(approvedAt);
-                corePayment = corePaymentRepository.save(corePayment);
-
-                logger.info("Payment approved for txnRef: {} with cbsId: {} at {}", 
-                           paymentData.getTxnRef(), corePayment.getCbsId(), 
-                           approvedAt.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-
-                // Now update account balance by debiting the payer's account
-                String referenceNumber = paymentData.getTxnRef().toString();
-                String description = String.format("Fund Transfer to %s - %s", 
-                    paymentData.getPayeeName(), paymentData.getComments() != null ? paymentData.getComments() : "");
-                
-                boolean balanceUpdateSuccess = accountsService.debitAccount(
-                    paymentData.getPayerAccount(), 
-                    paymentData.getAmount(), 
-                    referenceNumber, 
-                    description,
-                    userAuthorization
-                );
-
-                if (!balanceUpdateSuccess) {
-                    // If balance update fails, we should mark payment as failed
-                    // In a real system, we might need to implement compensation/rollback
-                    logger.error("Failed to update account balance for txnRef: {} - payment approved but balance not updated", 
-                               paymentData.getTxnRef());
-                    
-                    // Update payment status to indicate balance update failure
-                    corePayment.setStatus("APPROVED_BALANCE_UPDATE_FAILED");
-                    corePayment = corePaymentRepository.save(corePayment);
-                    
-                    return new ProcessingResult("APPROVED", paymentData.getTxnRef(), 
-                        corePayment.getCbsId(), approvedAt, "Payment approved but balance update failed - please contact support");
-                } else {
-                    logger.info("Successfully updated account balance for txnRef: {} - account {} debited by {}", 
-                               paymentData.getTxnRef(), paymentData.getPayerAccount(), paymentData.getAmount());
-                    
-                    // Now record the transaction in the accounts service
-                    // First get the current balance after debit to record properly
-                    BigDecimal balanceAfterTransaction = getCurrentBalance(paymentData.getPayerAccount(), userAuthorization);
-                    
-                    boolean transactionRecordSuccess = accountsService.recordTransaction(
-                        paymentData.getPayerAccount(),
-                        "debit",
-                        paymentData.getAmount(),
-                        description,
-                        referenceNumber,
-                        balanceAfterTransaction != null ? balanceAfterTransaction : BigDecimal.ZERO,
-                        "completed",
-                        userAuthorization
-                    );
-                    
-                    if (transactionRecordSuccess) {
-                        logger.info("Successfully recorded transaction for txnRef: {} - account {}", 
-                                   paymentData.getTxnRef(), paymentData.getPayerAccount());
-                    } else {
-                        logger.warn("Failed to record transaction for txnRef: {} - balance debited but transaction not recorded", 
-                                   paymentData.getTxnRef());
-                        // Note: We don't fail the payment for transaction recording failures,
-                        // as the money has already been debited successfully
-                    }
-                }
-
-                return new ProcessingResult("APPROVED", paymentData.getTxnRef(), 
-                    corePayment.getCbsId(), approvedAt, null);
-
-            } catch (Exception e) {
-                logger.error("Error processing payment", e);
-                return new ProcessingResult("REJECTED", null, null, null, 
-                    "Internal processing error: " + e.getMessage());
-            }
-        });
+    /**
+     * Processes one payment asynchronously. rawBody is the request's JSON exactly as received and is
+     * stored as the payment's raw_json; paymentRequest is the same JSON already bound.
+     *
+     * The payment runs as two stages on the processing executor: intake (validation and claiming the
+     * txnRef) and settlement. The simulated settlement latency between them is a scheduled task
+     * rather than a sleeping thread, so a waiting payment holds only memory and the number in flight
+     * is not bounded by the executor's thread count.
+     */
+    public CompletableFuture<ProcessingResult> processPayment(CorePaymentRequest paymentRequest, byte[] rawBody,
+                                                              String userAuthorization) {
+        CompletableFuture<ProcessingResult> result = new CompletableFuture<>();
+        // Rejection here propagates to the caller, which answers 503
+        paymentProcessingExecutor.execute(() -> startPayment(paymentRequest, rawBody, userAuthorization, result));
+        return result;
     }
 
-    private BigDecimal getCurrentBalance(String accountNumber, String userAuthorization) {
+    private void startPayment(CorePaymentRequest paymentRequest, byte[] rawBody, String userAuthorization,
+                              CompletableFuture<ProcessingResult> result) {
+        PaymentData paymentData;
         try {
-            // This is a simplified approach - in practice, we might get this from the debit response
-            // For now, we'll make a call to accounts service to get current balance
-            // TODO: Consider modifying debitAccount to return the balance after transaction
-            return BigDecimal.ZERO; // Placeholder - would need to implement account lookup
+            // Extract and validate payment data
+            paymentData = extractPaymentData(paymentRequest);
         } catch (Exception e) {
-            logger.warn("Failed to get current balance for account {}: {}", accountNumber, e.getMessage());
-            return null;
+            logger.warn("Invalid payment request: {}", e.getMessage());
+            result.complete(new ProcessingResult("REJECTED", null, null, null,
+                "Invalid payment request: " + e.getMessage()));
+            return;
+        }
+
+        // A retry arriving while the first attempt is still running never reaches the database
+        if (!inFlightTxnRefs.add(paymentData.getTxnRef())) {
+            logger.warn("Duplicate transaction detected for txnRef: {} (already in flight)", paymentData.getTxnRef());
+            result.complete(new ProcessingResult("UNKNOWN", paymentData.getTxnRef(), null, null,
+                "Duplicate transaction reference; the original attempt is still in progress"));
+            return;
+        }
+
+        try {
+            // Create CorePayment entity
+            CorePayment corePayment = createCorePayment(paymentData);
+
+            // Store the request body as received rather than re-serializing the parsed map
+            corePayment.setRawJsonBytes(rawBody);
+
+            // Check for duplicate txnRef and record the initial state
+            if (!claim(corePayment)) {
+                logger.warn("Duplicate transaction detected for txnRef: {}", paymentData.getTxnRef());
+                inFlightTxnRefs.remove(paymentData.getTxnRef());
+                result.complete(existingOutcome(paymentData.getTxnRef()));
+                return;
+            }
+
+            logger.info("Started processing payment for txnRef: {} with cbsId: {}", 
+                       paymentData.getTxnRef(), corePayment.getCbsId());
+
+            // Simulated settlement latency; no thread is held while the payment waits
+            runAfter(processingDelayMs, () -> settlePayment(paymentData, corePayment, userAuthorization, result));
+        } catch (Exception e) {
+            inFlightTxnRefs.remove(paymentData.getTxnRef());
+            result.complete(internalError(paymentData.getTxnRef(), e));
         }
     }
 
-    private PaymentData extractPaymentData(Map<String, Object> request) {
+    private void settlePayment(PaymentData paymentData, CorePayment corePayment, String userAuthorization,
+                               CompletableFuture<ProcessingResult> result) {
         try {
-            PaymentData data = new PaymentData();
+            result.complete(completePayment(paymentData, corePayment, userAuthorization));
+        } catch (Exception e) {
+            result.complete(internalError(paymentData.getTxnRef(), e));
+        } finally {
+            inFlightTxnRefs.remove(paymentData.getTxnRef());
+        }
+    }
+
+    /**
+     * Runs a stage on the processing executor once delayMs has passed. The scheduler thread only
+     * hands the stage over; if the executor is saturated the hand-over is retried rather than the
+     * already claimed payment being dropped.
+     */
+    private void runAfter(long delayMs, Runnable stage) {
+        if (delayMs <= 0) {
+            stage.run();
+            return;
+        }
+        settlementScheduler.schedule(() -> {
+            try {
+                paymentProcessingExecutor.execute(stage);
+            } catch (RejectedExecutionException e) {
+                logger.warn("Payment processing executor saturated, retrying settlement in {} ms", SETTLEMENT_RETRY_MS);
+                runAfter(SETTLEMENT_RETRY_MS, stage);
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A failure once the txnRef is claimed may come after the payer was debited (the final write in
+     * write-once mode follows the debit), so the payment is answered UNKNOWN rather than REJECTED and
+     * the caller has to look it up before treating the funds as free.
+     */
+    private ProcessingResult internalError(UUID txnRef, Exception e) {
+        logger.error("Error processing payment for txnRef: {}", txnRef, e);
+        return new ProcessingResult("UNKNOWN", txnRef, null, null, 
+            "Internal processing error: " + e.getMessage());
+    }
+
+    private ProcessingResult completePayment(PaymentData paymentData, CorePayment corePayment,
+                                             String userAuthorization) {
+        // Business validation (simplified for demo)
+        if (paymentData.getAmount().compareTo(new BigDecimal("100000")) > 0) {
+            corePayment.setStatus("REJECTED");
+            if (!persistFinal(corePayment)) {
+                return existingOutcome(paymentData.getTxnRef());
+            }
+            
+            logger.warn("Payment rejected for txnRef: {} - Amount exceeds limit", paymentData.getTxnRef());
+            return new ProcessingResult("REJECTED", paymentData.getTxnRef(), 
+                corePayment.getCbsId(), null, "Amount exceeds transaction limit");
+        }
+
+        // Approve payment
+        OffsetDateTime approvedAt = OffsetDateTime.now();
+        corePayment.setStatus("APPROVED");
+        corePayment.setApprovedAt(approvedAt);
+        persistTransition(corePayment);
+
+        logger.info("Payment approved for txnRef: {} with cbsId: {} at {}", 
+                   paymentData.getTxnRef(), corePayment.getCbsId(), 
+                   approvedAt.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+
+        // Now update account balance by debiting the payer's account
+        String referenceNumber = paymentData.getTxnRef().toString();
+        String description = String.format("Fund Transfer to %s - %s", 
+            paymentData.getPayeeName(), paymentData.getComments() != null ? paymentData.getComments() : "");
+        
+        // One call debits the payer and writes the ledger entry; the txnRef makes it safe to repeat
+        AccountsService.DebitResult debit = accountsService.debitAndRecord(
+            paymentData.getPayerAccount(), 
+            paymentData.getAmount(), 
+            referenceNumber, 
+            description,
+            userAuthorization
+        );
+
+        if (!debit.success()) {
+            // If balance update fails, we should mark payment as failed
+            // In a real system, we might need to implement compensation/rollback
+            logger.error("Failed to update account balance for txnRef: {} - payment approved but balance not updated", 
+                       paymentData.getTxnRef());
+            
+            // Update payment status to indicate balance update failure
+            corePayment.setStatus("APPROVED_BALANCE_UPDATE_FAILED");
+            if (!persistFinal(corePayment)) {
+                return existingOutcome(paymentData.getTxnRef());
+            }
             
-            data.setTxnRef(UUID.fromString((String) request.get("txnRef")));
-            data.setPaymentType((String) request.get("paymentType"));
-            data.setAmount(new BigDecimal(request.get("amount").toString()));
-            data.setCurrency((String) request.get("currency"));
-
-            // Extract payer details
-            @SuppressWarnings("unchecked")
-            Map<String, Object> payer = (Map<String, Object>) request.get("payer");
-            data.setPayerName((String) payer.get("name"));
-            data.setPayerAccount((String) payer.get("accountNo"));
-
-            // Extract payee details
-            @SuppressWarnings("unchecked")
-            Map<String, Object> payee = (Map<String, Object>) request.get("payee");
-            data.setPayeeName((String) payee.get("name"));
-            data.setPayeeAccount((String) payee.get("accountNo"));
-            data.setIfsc((String) payee.get("ifsc"));
-
-            // Extract meta information
-            @SuppressWarnings("unchecked")
-            Map<String, Object> meta = (Map<String, Object>) request.get("meta");
-            if (meta != null) {
-                data.setComments((String) meta.get("comments"));
-                String initiatedAtStr = (String) meta.get("initiatedAt");
-                if (initiatedAtStr != null && !initiatedAtStr.isEmpty()) {
-                    data.setInitiatedAt(OffsetDateTime.parse(initiatedAtStr));
-                } else {
-                    data.setInitiatedAt(OffsetDateTime.now());
-                }
-            } else {
-                data.setInitiatedAt(OffsetDateTime.now());
+            return new ProcessingResult("APPROVED", paymentData.getTxnRef(), 
+                corePayment.getCbsId(), approvedAt, "Payment approved but balance update failed - please contact support");
+        }
+
+        if (!eagerPersistence) {
+            if (!persistFinal(corePayment)) {
+                // Another attempt recorded this txnRef first; its debit and ours share the txnRef, so
+                // the accounts service applied it once and that attempt's outcome is ours
+                return existingOutcome(paymentData.getTxnRef());
             }
+        } else {
+            // Eager mode saved the APPROVED row before the debit; only now is it final
+            paymentStatusService.recordFinal(corePayment);
+        }
+        logger.info("Successfully updated account balance for txnRef: {} - account {} debited by {}, balance {} (transaction {})", 
+                   paymentData.getTxnRef(), paymentData.getPayerAccount(), paymentData.getAmount(),
+                   debit.newBalance(), debit.transactionId());
 
-            return data;
+        return new ProcessingResult("APPROVED", paymentData.getTxnRef(), 
+            corePayment.getCbsId(), approvedAt, null);
+    }
+
+    /**
+     * Reserves the txnRef before any work is done. Eager mode checks for an existing row and
+     * saves the PROCESSING state; write-once mode claims it in the intent log when that is enabled.
+     * Without the intent log nothing is read here: a repeat of a finished payment, like two attempts
+     * racing on different instances, is caught by ON CONFLICT at the final insert and answered with
+     * the recorded outcome. Its debit shares the txnRef, so the accounts service does not apply it
+     * twice.
+     */
+    private boolean claim(CorePayment corePayment) {
+        if (eagerPersistence) {
+            if (corePaymentRepository.existsByTxnRef(corePayment.getTxnRef())) {
+                return false;
+            }
+            corePaymentRepository.save(corePayment);
+            return true;
+        }
+        return !intentLogEnabled || corePaymentWriter.claimIntent(corePayment);
+    }
+
+    /**
+     * Saves an intermediate status. Only eager mode writes these; write-once keeps them in memory.
+     */
+    private void persistTransition(CorePayment corePayment) {
+        if (eagerPersistence) {
+            corePaymentRepository.save(corePayment);
+        }
+    }
+
+    /**
+     * Saves the status a payment ends in, as the single write in write-once mode, and makes it
+     * available to status lookups without a database read. Returns false if another payment with
+     * the same txnRef was recorded first, in which case nothing of this one was stored.
+     */
+    private boolean persistFinal(CorePayment corePayment) {
+        if (eagerPersistence) {
+            corePaymentRepository.save(corePayment);
+            paymentStatusService.recordFinal(corePayment);
+            return true;
+        }
+        // Batched with other payments' rows when enabled; either way this waits until the row is durable
+        boolean inserted = corePaymentBatchWriter.isEnabled()
+            ? corePaymentBatchWriter.submit(corePayment).join()
+            : corePaymentWriter.insertAllIfAbsent(List.of(corePayment), intentLogEnabled).contains(corePayment.getTxnRef());
+        if (inserted) {
+            paymentStatusService.recordFinal(corePayment);
+        } else {
+            logger.warn("Duplicate transaction detected for txnRef: {} at the final insert; status {} was not recorded", 
+                       corePayment.getTxnRef(), corePayment.getStatus());
+        }
+        return inserted;
+    }
+
+    /**
+     * Answers a repeat of a txnRef with the outcome recorded for it. A repeat may have reached the
+     * debit, which the accounts service applied once for both attempts, so it is reported REJECTED
+     * only when the recorded payment was; a row still PROCESSING, or none yet, leaves it UNKNOWN.
+     */
+    private ProcessingResult existingOutcome(UUID txnRef) {
+        Optional<PaymentStatusView> existing;
+        try {
+            existing = paymentStatusService.findByTxnRef(txnRef);
         } catch (Exception e) {
-            logger.error("Failed to extract payment data from request", e);
-            throw new IllegalArgumentException("Invalid payment request format", e);
+            logger.error("Status lookup for duplicate txnRef: {} failed", txnRef, e);
+            return new ProcessingResult("UNKNOWN", txnRef, null, null,
+                "Duplicate transaction reference; status lookup failed");
+        }
+        if (existing.isEmpty() || !existing.get().isTerminal()) {
+            return new ProcessingResult("UNKNOWN", txnRef, null, null,
+                "Duplicate transaction reference; the original attempt is still in progress");
         }
+        PaymentStatusView recorded = existing.get();
+        if ("REJECTED".equals(recorded.status())) {
+            return new ProcessingResult("REJECTED", txnRef, recorded.cbsId(), null, "Duplicate transaction reference");
+        }
+        // APPROVED_BALANCE_UPDATE_FAILED was answered APPROVED too
+        return new ProcessingResult("APPROVED", txnRef, recorded.cbsId(), recorded.approvedAt(),
+            "Duplicate transaction reference");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedPayments() {
+        if (eagerPersistence || !intentLogEnabled) {
+            return;
+        }
+        try {
+            corePaymentWriter.recoverStaleIntents(OffsetDateTime.now().minusNanos(intentRecoveryAfterMs * 1_000_000));
+        } catch (Exception e) {
+            logger.error("Failed to recover interrupted payments from the intent log", e);
+        }
+    }
+
+    private PaymentData extractPaymentData(CorePaymentRequest request) {
+        if (request.version() != null && request.version() > CorePaymentRequest.CURRENT_VERSION) {
+            throw new IllegalArgumentException("Unsupported payment contract version " + request.version());
+        }
+        if (request.txnRef() == null || request.amount() == null || request.payer() == null || request.payee() == null) {
+            throw new IllegalArgumentException("Invalid payment request format");
+        }
+
+        PaymentData data = new PaymentData();
+        data.setTxnRef(request.txnRef());
+        data.setPaymentType(request.paymentType());
+        data.setAmount(request.amount());
+        data.setCurrency(request.currency());
+        data.setPayerName(request.payer().name());
+        data.setPayerAccount(request.payer().accountNo());
+        data.setPayeeName(request.payee().name());
+        data.setPayeeAccount(request.payee().accountNo());
+        data.setIfsc(request.payee().ifsc());
+
+        CorePaymentRequest.Meta meta = request.meta();
+        data.setComments(meta != null ? meta.comments() : null);
+        data.setInitiatedAt(meta != null && meta.initiatedAt() != null ? meta.initiatedAt() : OffsetDateTime.now());
+        return data;
     }
 
     private CorePayment createCorePayment(PaymentData data) {
@@ -229,15 +386,6 @@ public class PaymentProcessingService {
         return payment;
     }
 
-    private void simulateProcessingDelay() {
-        try {
-            Thread.sleep(processingDelayMs);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.warn("Processing delay interrupted", e);
-        }
-    }
-
     // Inner class for payment data
     private static class PaymentData {
         private UUID txnRef;
@@ -0,0 +1,74 @@
+package com.vubank.core.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vubank.core.model.CorePayment;
+import com.vubank.core.model.PaymentStatusView;
+import com.vubank.core.repository.CorePaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Payment status lookups for ops tooling. Payments in a final status are cached by cbsId and by
+ * txnRef when PaymentProcessingService writes them, or on the first database read after a restart,
+ * so repeated polls for settled payments never reach Postgres. Other statuses are always read
+ * fresh. Database reads use a projection and never load raw_json. Cache statistics are published
+ * as cache.* metrics (cache=payment-status-by-cbs-id, payment-status-by-txn-ref).
+ */
+@Service
+public class PaymentStatusService implements MeterBinder {
+
+    private final CorePaymentRepository corePaymentRepository;
+    private final Cache<UUID, PaymentStatusView> byCbsId;
+    private final Cache<UUID, PaymentStatusView> byTxnRef;
+
+    public PaymentStatusService(CorePaymentRepository corePaymentRepository,
+                                @Value("${processing.status-cache.max-size:100000}") long maxSize) {
+        this.corePaymentRepository = corePaymentRepository;
+        this.byCbsId = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.byTxnRef = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byCbsId, "payment-status-by-cbs-id");
+        CaffeineCacheMetrics.monitor(registry, byTxnRef, "payment-status-by-txn-ref");
+    }
+
+    public Optional<PaymentStatusView> findByCbsId(UUID cbsId) {
+        PaymentStatusView cached = byCbsId.getIfPresent(cbsId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return corePaymentRepository.findStatusByCbsId(cbsId).map(this::cacheIfTerminal);
+    }
+
+    public Optional<PaymentStatusView> findByTxnRef(UUID txnRef) {
+        PaymentStatusView cached = byTxnRef.getIfPresent(txnRef);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return corePaymentRepository.findStatusByTxnRef(txnRef).map(this::cacheIfTerminal);
+    }
+
+    /**
+     * Called once a payment's final status has been written.
+     */
+    public void recordFinal(CorePayment payment) {
+        cacheIfTerminal(PaymentStatusView.of(payment));
+    }
+
+    private PaymentStatusView cacheIfTerminal(PaymentStatusView view) {
+        if (view.isTerminal()) {
+            byCbsId.put(view.cbsId(), view);
+            byTxnRef.put(view.txnRef(), view);
+        }
+        return view;
+    }
+}
@@ -0,0 +1,130 @@
+package com.vubank.core.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CoreBanking's own JWT for accounts-service calls made without a user token. The signing key is
+ * built once at startup from {@code accounts.service.jwt.secret}, which has no default: startup
+ * fails if it is unset or too short for HS256. One token is shared by all threads; a background thread mints the next
+ * one {@code accounts.service.jwt.refresh-ahead-ms} before the current one expires, so callers only
+ * read a volatile field. If the background refresh falls behind, the first caller to see a nearly
+ * expired token mints one itself.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenProvider.class);
+
+    private static final String SERVICE_USER_ID = "corebanking-service";
+    // A token this close to expiry is not handed out; it could lapse before the accounts service checks it
+    private static final long MIN_REMAINING_MS = 10_000;
+    private static final long RETRY_AFTER_FAILURE_MS = 30_000;
+
+    private final SecretKey signingKey;
+    private final long ttlMs;
+    private final long refreshAheadMs;
+    private final ScheduledExecutorService refreshScheduler;
+
+    private volatile CachedToken current;
+
+    public ServiceTokenProvider(@Value("${accounts.service.jwt.secret}") String jwtSecret,
+                                @Value("${accounts.service.jwt.ttl-ms:3600000}") long ttlMs,
+                                @Value("${accounts.service.jwt.refresh-ahead-ms:300000}") long refreshAheadMs) {
+        this.signingKey = buildSigningKey(jwtSecret);
+        this.ttlMs = ttlMs;
+        this.refreshAheadMs = Math.min(refreshAheadMs, ttlMs / 2);
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "service-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshInBackground();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+
+    public String getToken() {
+        CachedToken token = current;
+        if (token != null && token.expiresAtMs - System.currentTimeMillis() > MIN_REMAINING_MS) {
+            return token.value;
+        }
+        return refreshIfStale();
+    }
+
+    private synchronized String refreshIfStale() {
+        CachedToken token = current;
+        if (token == null || token.expiresAtMs - System.currentTimeMillis() <= MIN_REMAINING_MS) {
+            token = mint();
+            current = token;
+        }
+        return token.value;
+    }
+
+    private void refreshInBackground() {
+        long nextRefreshMs = RETRY_AFTER_FAILURE_MS;
+        try {
+            CachedToken token = mint();
+            current = token;
+            nextRefreshMs = token.expiresAtMs - refreshAheadMs - System.currentTimeMillis();
+            logger.debug("Minted service token valid until {}", new Date(token.expiresAtMs));
+        } catch (Exception e) {
+            logger.error("Failed to mint service token, retrying in {} ms", RETRY_AFTER_FAILURE_MS, e);
+        }
+        if (!refreshScheduler.isShutdown()) {
+            refreshScheduler.schedule(this::refreshInBackground, Math.max(nextRefreshMs, 0), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private CachedToken mint() {
+        long issuedAtMs = System.currentTimeMillis();
+        long expiresAtMs = issuedAtMs + ttlMs;
+        String value = Jwts.builder()
+            .setClaims(Map.of(
+                "user_id", SERVICE_USER_ID,
+                "roles", List.of("retail")))
+            .setIssuedAt(new Date(issuedAtMs))
+            .setExpiration(new Date(expiresAtMs))
+            .signWith(signingKey, SignatureAlgorithm.HS256)
+            .compact();
+        return new CachedToken(value, expiresAtMs);
+    }
+
+    private static SecretKey buildSigningKey(String jwtSecret) {
+        if (jwtSecret == null || jwtSecret.isBlank()) {
+            throw new IllegalStateException("accounts.service.jwt.secret must be set");
+        }
+        try {
+            return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // e.g. a secret shorter than the 256 bits HS256 requires
+            throw new IllegalStateException("accounts.service.jwt.secret cannot sign service tokens: " + e.getMessage(), e);
+        }
+    }
+
+    private record CachedToken(String value, long expiresAtMs) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.vubank.core.benchmark;
+
+import com.vubank.core.model.CorePayment;
+import com.vubank.core.repository.CorePaymentWriter;
+import com.vubank.core.service.CorePaymentBatchWriter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Final core_payments rows per second through {@link CorePaymentBatchWriter} at 1, 16 and 64
+ * concurrent payments, against one single-row insert per payment on the same pool
+ * (batched=false). Each operation is one payment waiting for its row to commit, so ops/s is
+ * rows/s. Writer settings match application.properties: 4 writer threads, batches of up to 100,
+ * no wait, a 20-connection pool.
+ *
+ * Needs a PostgreSQL with backend/db/corebanking-schema.sql loaded, by default the docker-compose
+ * one on localhost; to change it, pass "-jvmArgsAppend -Djdbc.url=..." (and jdbc.user,
+ * jdbc.password) to run_jmh_benchmarks.sh after the benchmark name. Rows are written with
+ * payer_account JMH-BENCH and deleted at the end of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorePaymentBatchWriterBenchmark {
+
+    private static final String BENCH_ACCOUNT = "JMH-BENCH";
+    private static final byte[] RAW_JSON = ("{\"version\":\"1.0\",\"amount\":1000.00,\"paymentType\":\"NEFT\","
+        + "\"payer\":{\"accountNo\":\"JMH-BENCH\"},\"payee\":{\"accountNo\":\"ACC002\",\"ifsc\":\"SBIN0000123\"}}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"true", "false"})
+    public boolean batched;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CorePaymentWriter corePaymentWriter;
+    private CorePaymentBatchWriter batchWriter;
+
+    @Setup
+    public void setUp() {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl(System.getProperty("jdbc.url",
+            "jdbc:postgresql://localhost:5432/vubank_db?reWriteBatchedInserts=true"));
+        hikari.setUsername(System.getProperty("jdbc.user", "vubank_user"));
+        hikari.setPassword(System.getProperty("jdbc.password", "vubank_pass"));
+        hikari.setMaximumPoolSize(20);
+        dataSource = new HikariDataSource(hikari);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        corePaymentWriter = new CorePaymentWriter(jdbcTemplate, 16384);
+        batchWriter = new CorePaymentBatchWriter(corePaymentWriter, true, 100, 0L, false, 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchWriter.shutdown();
+        jdbcTemplate.update("DELETE FROM core_payments WHERE payer_account = ?", BENCH_ACCOUNT);
+        dataSource.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean writers1() {
+        return writeOne();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean writers16() {
+        return writeOne();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean writers64() {
+        return writeOne();
+    }
+
+    private boolean writeOne() {
+        CorePayment payment = new CorePayment(UUID.randomUUID(), "APPROVED", new BigDecimal("1000.00"),
+            BENCH_ACCOUNT, "ACC002", "SBIN0000123", "NEFT", OffsetDateTime.now());
+        payment.setApprovedAt(OffsetDateTime.now());
+        payment.setRawJsonBytes(RAW_JSON);
+
+        if (batched) {
+            return batchWriter.submit(payment).join();
+        }
+        return !corePaymentWriter.insertAllIfAbsent(List.of(payment), false).isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vubank.core.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.vubank.core.model.CorePaymentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a payment posted to /core/payments: binding to Map&lt;String,Object&gt; and extracting the
+ * fields with casts and reparsing, as PaymentProcessingService did, against binding straight to
+ * the {@link CorePaymentRequest} record, each with and without Blackbird. Both read every field
+ * extractPaymentData uses. The sending side is CorePaymentContractWriteBenchmark in payment-process.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CorePaymentContractReadBenchmark {
+
+    private static final byte[] BODY = ("{\"version\":1,\"txnRef\":\"" + UUID.randomUUID() + "\","
+        + "\"paymentType\":\"NEFT\",\"amount\":1000.00,\"currency\":\"INR\","
+        + "\"payer\":{\"name\":\"Jane Roe\",\"accountNo\":\"ACC001\",\"accountType\":\"SAVINGS\"},"
+        + "\"payee\":{\"name\":\"John Doe\",\"accountNo\":\"ACC002\",\"ifsc\":\"SBIN0000123\"},"
+        + "\"meta\":{\"branchName\":\"Mumbai Main\",\"initiatedAt\":\"2024-01-01T10:00:00+05:30\","
+        + "\"comments\":\"Invoice settlement\"},"
+        + "\"headers\":{\"xRequestId\":\"" + UUID.randomUUID() + "\",\"xApiClient\":\"web-portal\"}}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectReader mapReader;
+    private ObjectReader recordReader;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
+        recordReader = objectMapper.readerFor(CorePaymentRequest.class);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void map(Blackhole blackhole) throws IOException {
+        Map<String, Object> request = mapReader.readValue(BODY);
+
+        blackhole.consume(UUID.fromString((String) request.get("txnRef")));
+        blackhole.consume((String) request.get("paymentType"));
+        blackhole.consume(new BigDecimal(request.get("amount").toString()));
+        blackhole.consume((String) request.get("currency"));
+
+        Map<String, Object> payer = (Map<String, Object>) request.get("payer");
+        blackhole.consume((String) payer.get("name"));
+        blackhole.consume((String) payer.get("accountNo"));
+
+        Map<String, Object> payee = (Map<String, Object>) request.get("payee");
+        blackhole.consume((String) payee.get("name"));
+        blackhole.consume((String) payee.get("accountNo"));
+        blackhole.consume((String) payee.get("ifsc"));
+
+        Map<String, Object> meta = (Map<String, Object>) request.get("meta");
+        blackhole.consume((String) meta.get("comments"));
+        blackhole.consume(OffsetDateTime.parse((String) meta.get("initiatedAt")));
+    }
+
+    @Benchmark
+    public void record(Blackhole blackhole) throws IOException {
+        CorePaymentRequest request = recordReader.readValue(BODY);
+
+        blackhole.consume(request.txnRef());
+        blackhole.consume(request.paymentType());
+        blackhole.consume(request.amount());
+        blackhole.consume(request.currency());
+        blackhole.consume(request.payer().name());
+        blackhole.consume(request.payer().accountNo());
+        blackhole.consume(request.payee().name());
+        blackhole.consume(request.payee().accountNo());
+        blackhole.consume(request.payee().ifsc());
+        blackhole.consume(request.meta().comments());
+        blackhole.consume(request.meta().initiatedAt());
+    }
+}
@@ -0,0 +1,74 @@
+package com.vubank.payment.config;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+import com.vubank.payment.model.BalanceHold;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact serializer for {@link AccountBalance}. Holds are written as parallel arrays, since a
+ * nested Compact type would need its own serializer for three fields.
+ */
+public class AccountBalanceSerializer implements CompactSerializer<AccountBalance> {
+
+    @Override
+    public AccountBalance read(CompactReader reader) {
+        AccountBalance balance = new AccountBalance(
+            reader.readString("accountNumber"),
+            reader.readDecimal("balance"),
+            reader.readTimestampWithTimezone("loadedAt"));
+
+        // Entries written before holds existed have no hold fields
+        if (reader.getFieldKind("holdTxnRefs") == FieldKind.ARRAY_OF_STRING) {
+            String[] txnRefs = reader.readArrayOfString("holdTxnRefs");
+            BigDecimal[] amounts = reader.readArrayOfDecimal("holdAmounts");
+            OffsetDateTime[] expiresAt = reader.readArrayOfTimestampWithTimezone("holdExpiresAt");
+            List<BalanceHold> holds = new ArrayList<>(txnRefs.length);
+            for (int i = 0; i < txnRefs.length; i++) {
+                holds.add(new BalanceHold(txnRefs[i], amounts[i], expiresAt[i]));
+            }
+            balance.setHolds(holds);
+        }
+        return balance;
+    }
+
+    @Override
+    public void write(CompactWriter writer, AccountBalance balance) {
+        writer.writeString("accountNumber", balance.getAccountNumber());
+        writer.writeDecimal("balance", balance.getBalance());
+        writer.writeTimestampWithTimezone("loadedAt", balance.getLoadedAt());
+
+        Collection<BalanceHold> holds = balance.getHolds();
+        String[] txnRefs = new String[holds.size()];
+        BigDecimal[] amounts = new BigDecimal[holds.size()];
+        OffsetDateTime[] expiresAt = new OffsetDateTime[holds.size()];
+        int i = 0;
+        for (BalanceHold hold : holds) {
+            txnRefs[i] = hold.getTxnRef();
+            amounts[i] = hold.getAmount();
+            expiresAt[i] = hold.getExpiresAt();
+            i++;
+        }
+        writer.writeArrayOfString("holdTxnRefs", txnRefs);
+        writer.writeArrayOfDecimal("holdAmounts", amounts);
+        writer.writeArrayOfTimestampWithTimezone("holdExpiresAt", expiresAt);
+    }
+
+    @Override
+    public String getTypeName() {
+        return "AccountBalance";
+    }
+
+    @Override
+    public Class<AccountBalance> getCompactClass() {
+        return AccountBalance.class;
+    }
+}
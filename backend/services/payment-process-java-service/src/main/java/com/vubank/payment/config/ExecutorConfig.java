@@ -0,0 +1,59 @@
+package com.vubank.payment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated executor for the CoreBanking call path, sized for blocking I/O rather than CPU cores,
+ * so payments no longer borrow ForkJoinPool.commonPool() threads. Spring Boot publishes its
+ * executor.* metrics under name=coreBankingExecutor.
+ *
+ * With spring.threads.virtual.enabled=true (which also moves Tomcat request handling onto virtual
+ * threads) every CoreBanking call, and the Hazelcast state update chained onto it, gets its own
+ * virtual thread instead of a pooled platform thread.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${executor.corebanking.threads:64}")
+    private int coreBankingThreads;
+
+    @Value("${executor.corebanking.queue-capacity:1000}")
+    private int coreBankingQueueCapacity;
+
+    @Value("${executor.corebanking.virtual.max-in-flight:-1}")
+    private int coreBankingVirtualMaxInFlight;
+
+    @Bean(name = "coreBankingExecutor")
+    public AsyncTaskExecutor coreBankingExecutor() {
+        if (virtualThreadsEnabled) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("corebanking-call-");
+            executor.setVirtualThreads(true);
+            // -1 is unbounded; a positive limit makes submitters wait, like CallerRunsPolicy below
+            executor.setConcurrencyLimit(coreBankingVirtualMaxInFlight);
+            executor.setTaskTerminationTimeout(30000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreBankingThreads);
+        executor.setMaxPoolSize(coreBankingThreads);
+        executor.setQueueCapacity(coreBankingQueueCapacity);
+        executor.setThreadNamePrefix("corebanking-call-");
+        // When saturated, run on the request thread: slows intake instead of dropping payments
+        // whose state is already IN_PROGRESS
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -4,6 +4,15 @@ import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.spring.context.SpringAware;
+import com.vubank.payment.service.AccountBalanceDebit;
+import com.vubank.payment.service.AccountBalanceHold;
+import com.vubank.payment.service.AccountBalanceHoldRelease;
+import com.vubank.payment.service.AccountBalanceHoldRenewal;
+import com.vubank.payment.service.AccountBalanceLoader;
+import com.vubank.payment.service.AccountBalanceRefresh;
+import com.vubank.payment.service.AccountBalanceService;
+import com.vubank.payment.service.TransactionStateJournal;
+import com.vubank.payment.service.TransactionStateTransition;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,8 +40,11 @@ public class HazelcastConfig {
     @Value("#{'${hazelcast.tcp-ip.members:}'.split(',')}")
     private List<String> tcpIpMembers;
 
+    @Value("${transaction.balance.cache.ttl:300}")
+    private int balanceCacheTtlSeconds;
+
     @Bean
-    public HazelcastInstance hazelcastInstance() {
+    public HazelcastInstance hazelcastInstance(AccountBalanceLoader accountBalanceLoader) {
         Config config = new Config();
         config.setClusterName(clusterName);
         
@@ -84,14 +96,28 @@ public class HazelcastConfig {
             .setSize(10000));
         config.addMapConfig(transactionMapConfig);
 
-        // Configure balance cache map
-        MapConfig balanceMapConfig = new MapConfig("balance-cache");
-        balanceMapConfig.setTimeToLiveSeconds(300); // 5 minutes
-        balanceMapConfig.setMaxIdleSeconds(600); // 10 minutes idle
+        // Configure account balance map - misses load from the accounts service, repeat reads are
+        // served by the near cache, which Hazelcast invalidates on every member when a balance changes
+        MapConfig balanceMapConfig = new MapConfig(AccountBalanceService.ACCOUNT_BALANCES_MAP);
+        // Held as objects, so hold processors on hot accounts skip deserializing the entry each time
+        balanceMapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        balanceMapConfig.setTimeToLiveSeconds(balanceCacheTtlSeconds);
         balanceMapConfig.setEvictionConfig(new EvictionConfig()
             .setEvictionPolicy(EvictionPolicy.LRU)
             .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
-            .setSize(5000));
+            .setSize(50000));
+        balanceMapConfig.setMapStoreConfig(new MapStoreConfig()
+            .setEnabled(true)
+            .setImplementation(accountBalanceLoader)
+            .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY));
+        balanceMapConfig.setNearCacheConfig(new NearCacheConfig()
+            .setInMemoryFormat(InMemoryFormat.OBJECT)
+            .setInvalidateOnChange(true)
+            .setTimeToLiveSeconds(balanceCacheTtlSeconds)
+            .setEvictionConfig(new EvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.LRU)
+                .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(10000)));
         config.addMapConfig(balanceMapConfig);
 
         // Configure idempotency locks map
@@ -104,14 +130,33 @@ public class HazelcastConfig {
             .setSize(1000));
         config.addMapConfig(lockMapConfig);
 
+        // Configure payment batch maps - no size-based eviction so large batches keep every item
+        MapConfig batchMapConfig = new MapConfig("payment-batches");
+        batchMapConfig.setTimeToLiveSeconds(172800); // 48 hours
+        config.addMapConfig(batchMapConfig);
+
+        MapConfig batchItemsMapConfig = new MapConfig("payment-batch-items");
+        batchItemsMapConfig.setTimeToLiveSeconds(172800); // 48 hours
+        config.addMapConfig(batchItemsMapConfig);
+
         // Management center configuration (optional)
         config.getManagementCenterConfig().setConsoleEnabled(false);
 
         // Enable Spring integration (removed setSpringAware as it doesn't exist in this version)
 
-        // Serialization configuration for better performance
+        // Compact serialization for transaction states: schema sent once per cluster, values carry
+        // only field data, and no Java serialization (so the old compression flag no longer applies)
         SerializationConfig serializationConfig = config.getSerializationConfig();
-        serializationConfig.setEnableCompression(true);
+        serializationConfig.getCompactSerializationConfig()
+            .addSerializer(new TransactionStateSerializer())
+            .addSerializer(new TransactionStateTransition.Serializer())
+            .addSerializer(new TransactionStateJournal.Flush.Serializer())
+            .addSerializer(new AccountBalanceSerializer())
+            .addSerializer(new AccountBalanceDebit.Serializer())
+            .addSerializer(new AccountBalanceHold.Serializer())
+            .addSerializer(new AccountBalanceHoldRelease.Serializer())
+            .addSerializer(new AccountBalanceHoldRenewal.Serializer())
+            .addSerializer(new AccountBalanceRefresh.Serializer());
 
         return Hazelcast.newHazelcastInstance(config);
     }
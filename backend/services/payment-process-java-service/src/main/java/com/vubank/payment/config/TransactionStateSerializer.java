@@ -0,0 +1,77 @@
+package com.vubank.payment.config;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.TransactionState;
+
+/**
+ * Compact serializer for {@link TransactionState}. Field names form the schema, so new fields can
+ * be added later; readers must then guard them with getFieldKind before reading.
+ */
+public class TransactionStateSerializer implements CompactSerializer<TransactionState> {
+
+    public static final String TYPE_NAME = "TransactionState";
+
+    @Override
+    public TransactionState read(CompactReader reader) {
+        TransactionState state = new TransactionState();
+        state.setTxnRef(reader.readString("txnRef"));
+        String status = reader.readString("status");
+        state.setStatus(status != null ? TransactionState.Status.valueOf(status) : null);
+        state.setPaymentType(reader.readString("paymentType"));
+        state.setAmount(reader.readDecimal("amount"));
+        state.setPayerAccount(reader.readString("payerAccount"));
+        state.setPayeeAccount(reader.readString("payeeAccount"));
+        state.setPayeeName(reader.readString("payeeName"));
+        state.setIfsc(reader.readString("ifsc"));
+        state.setComments(reader.readString("comments"));
+        state.setCreatedAt(reader.readTimestampWithTimezone("createdAt"));
+        state.setUpdatedAt(reader.readTimestampWithTimezone("updatedAt"));
+        state.setProcessedAt(reader.readTimestampWithTimezone("processedAt"));
+        state.setValidatedAt(reader.readTimestampWithTimezone("validatedAt"));
+        state.setInProgressAt(reader.readTimestampWithTimezone("inProgressAt"));
+        state.setApprovedAt(reader.readTimestampWithTimezone("approvedAt"));
+        state.setCbsId(reader.readString("cbsId"));
+        state.setFailureReason(reader.readString("failureReason"));
+        state.setCoreBankingResponse(reader.readString("coreBankingResponse"));
+        state.setXRequestId(reader.readString("xRequestId"));
+        state.setXApiClient(reader.readString("xApiClient"));
+        return state;
+    }
+
+    @Override
+    public void write(CompactWriter writer, TransactionState state) {
+        writer.writeString("txnRef", state.getTxnRef());
+        // Stored by name rather than ordinal so reordering the enum cannot corrupt existing entries
+        writer.writeString("status", state.getStatus() != null ? state.getStatus().name() : null);
+        writer.writeString("paymentType", state.getPaymentType());
+        writer.writeDecimal("amount", state.getAmount());
+        writer.writeString("payerAccount", state.getPayerAccount());
+        writer.writeString("payeeAccount", state.getPayeeAccount());
+        writer.writeString("payeeName", state.getPayeeName());
+        writer.writeString("ifsc", state.getIfsc());
+        writer.writeString("comments", state.getComments());
+        writer.writeTimestampWithTimezone("createdAt", state.getCreatedAt());
+        writer.writeTimestampWithTimezone("updatedAt", state.getUpdatedAt());
+        writer.writeTimestampWithTimezone("processedAt", state.getProcessedAt());
+        writer.writeTimestampWithTimezone("validatedAt", state.getValidatedAt());
+        writer.writeTimestampWithTimezone("inProgressAt", state.getInProgressAt());
+        writer.writeTimestampWithTimezone("approvedAt", state.getApprovedAt());
+        writer.writeString("cbsId", state.getCbsId());
+        writer.writeString("failureReason", state.getFailureReason());
+        writer.writeString("coreBankingResponse", state.getCoreBankingResponse());
+        writer.writeString("xRequestId", state.getXRequestId());
+        writer.writeString("xApiClient", state.getXApiClient());
+    }
+
+    @Override
+    public String getTypeName() {
+        return TYPE_NAME;
+    }
+
+    @Override
+    public Class<TransactionState> getCompactClass() {
+        return TransactionState.class;
+    }
+}
@@ -1,10 +1,14 @@
 package com.vubank.payment.controller;
 
+import com.vubank.payment.model.BatchStatus;
 import com.vubank.payment.model.PaymentRequest;
 import com.vubank.payment.model.PaymentResponse;
 import com.vubank.payment.model.TransactionState;
+import com.vubank.payment.service.AccountBalanceService;
+import com.vubank.payment.service.BatchPaymentService;
 import com.vubank.payment.service.CoreBankingService;
 import com.vubank.payment.service.HazelcastTransactionStateService;
+import com.vubank.payment.service.TransactionStateTransition;
 import com.vubank.payment.service.XmlParsingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +18,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -28,25 +31,33 @@ import java.util.concurrent.CompletableFuture;
 public class PaymentController {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
+    private static final int MAX_BATCH_PAGE_SIZE = 500;
 
     private final XmlParsingService xmlParsingService;
     private final HazelcastTransactionStateService transactionStateService;
     private final CoreBankingService coreBankingService;
+    private final BatchPaymentService batchPaymentService;
+    private final AccountBalanceService accountBalanceService;
 
     public PaymentController(XmlParsingService xmlParsingService,
                            HazelcastTransactionStateService transactionStateService,
-                           CoreBankingService coreBankingService) {
+                           CoreBankingService coreBankingService,
+                           BatchPaymentService batchPaymentService,
+                           AccountBalanceService accountBalanceService) {
         this.xmlParsingService = xmlParsingService;
         this.transactionStateService = transactionStateService;
         this.coreBankingService = coreBankingService;
+        this.batchPaymentService = batchPaymentService;
+        this.accountBalanceService = accountBalanceService;
     }
 
     @PostMapping(value = "/transfer", consumes = MediaType.APPLICATION_XML_VALUE)
     public ResponseEntity<PaymentResponse> createPayment(
-            @RequestBody String xmlPayload,
+            InputStream xmlPayload,
             @RequestHeader(value = "X-Api-Client", defaultValue = "unknown") String xApiClient,
             @RequestHeader(value = "X-Request-Id", required = false) String xRequestId,
             @RequestHeader(value = "Content-Type") String contentType,
+            @RequestHeader(value = "Content-Length", required = false) Long contentLength,
             @RequestHeader(value = "X-Signature", required = false) String xSignature,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestHeader(value = "Authorization", required = false) String authorization,
@@ -72,9 +83,7 @@ public class PaymentController {
         logger.info("Idempotency-Key: {}", idempotencyKey);
         logger.info("Traceparent: {}", traceparent);
         logger.info("Tracestate: {}", tracestate);
-        logger.info("XML Payload length: {} chars", xmlPayload != null ? xmlPayload.length() : 0);
-        logger.info("XML Payload preview: {}", xmlPayload != null && xmlPayload.length() > 100 ? 
-            xmlPayload.substring(0, 100) + "..." : xmlPayload);
+        logger.info("XML Payload length: {} bytes", contentLength != null ? contentLength : "unknown (chunked)");
         logger.info("=== END REQUEST DEBUG ===");
 
         logger.info("Received payment transfer request - xRequestId: {}, xApiClient: {}", xRequestId, xApiClient);
@@ -92,47 +101,63 @@ public class PaymentController {
                 }
             }
 
-            // Parse XML to PaymentRequest
+            // Parse XML to PaymentRequest straight from the request body stream
             PaymentRequest paymentRequest = xmlParsingService.parseXmlToPaymentRequest(xmlPayload, xRequestId, xApiClient);
 
             // Generate transaction reference
             String txnRef = UUID.randomUUID().toString();
             MDC.put("txnRef", txnRef);
 
-            // Create initial transaction state
+            // Build the state locally through RECEIVED -> VALIDATED -> IN_PROGRESS (or FAILED) and
+            // write it to Hazelcast once, so the 202 path makes a single distributed state write
             TransactionState txnState = transactionStateService.createInitialState(txnRef, paymentRequest);
-            
-            // Set to RECEIVED status
-            txnState.setStatus(TransactionState.Status.RECEIVED);
-            transactionStateService.saveTransactionState(txnState);
+            txnState.setXRequestId(xRequestId);
+            txnState.setXApiClient(xApiClient);
+            new TransactionStateTransition(TransactionState.Status.VALIDATED, null).applyTo(txnState);
+
+            // Reserve the funds; concurrent payments from the same account cannot both spend them
+            String fromAccountNo = paymentRequest.getFromAccountNo();
+            boolean held;
+            try {
+                held = accountBalanceService.placeHold(fromAccountNo, txnRef, paymentRequest.getAmount());
+            } catch (RuntimeException e) {
+                new TransactionStateTransition(TransactionState.Status.FAILED, "BALANCE_UNAVAILABLE").applyTo(txnState);
+                transactionStateService.saveTransactionState(txnState);
 
-            // Move to VALIDATED status
-            transactionStateService.updateTransactionStatus(txnRef, TransactionState.Status.VALIDATED, null);
+                logger.error("Balance of account {} could not be checked for txnRef: {}", fromAccountNo, txnRef, e);
 
-            // Check balance
-            BigDecimal currentBalance = transactionStateService.getAccountBalance(paymentRequest.getFromAccountNo());
-            
-            if (currentBalance.compareTo(paymentRequest.getAmount()) < 0) {
-                transactionStateService.updateTransactionStatus(txnRef, TransactionState.Status.FAILED, 
-                    "INSUFFICIENT_BALANCE");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new PaymentResponse(txnRef, "FAILED", "BALANCE_UNAVAILABLE"));
+            }
+            if (!held) {
+                new TransactionStateTransition(TransactionState.Status.FAILED, "INSUFFICIENT_BALANCE").applyTo(txnState);
+                transactionStateService.saveTransactionState(txnState);
                 
-                logger.warn("Insufficient balance for txnRef: {} - Required: {}, Available: {}", 
-                           txnRef, paymentRequest.getAmount(), currentBalance);
+                logger.warn("Insufficient balance for txnRef: {} - Required: {}", txnRef, paymentRequest.getAmount());
                 
                 return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
                     .body(new PaymentResponse(txnRef, "FAILED", "INSUFFICIENT_BALANCE"));
             }
 
             // Move to IN_PROGRESS status
-            transactionStateService.updateTransactionStatus(txnRef, TransactionState.Status.IN_PROGRESS, null);
-
-            // Call CoreBanking service asynchronously
-            CompletableFuture<CoreBankingService.CoreBankingResponse> futureResponse = 
-                coreBankingService.processPayment(txnRef, paymentRequest, authorization);
+            CompletableFuture<CoreBankingService.CoreBankingResponse> futureResponse;
+            try {
+                new TransactionStateTransition(TransactionState.Status.IN_PROGRESS, null).applyTo(txnState);
+                transactionStateService.saveTransactionState(txnState);
+
+                // Call CoreBanking service asynchronously
+                futureResponse = coreBankingService.processPayment(txnRef, paymentRequest, authorization);
+            } catch (RuntimeException e) {
+                accountBalanceService.releaseHold(fromAccountNo, txnRef);
+                throw e;
+            }
 
-            // Handle CoreBanking response asynchronously
+            // Handle CoreBanking response asynchronously; the hold is settled, released or, when the
+            // outcome is unknown, kept until CoreBanking confirms what it did
             futureResponse.thenAccept(coreBankingResponse -> {
-                handleCoreBankingResponse(txnRef, coreBankingResponse);
+                transactionStateService.applyCoreBankingResponse(txnRef, coreBankingResponse);
+                accountBalanceService.settleHold(fromAccountNo, txnRef, paymentRequest.getAmount(),
+                    txnState.getInProgressAt(), coreBankingResponse);
             });
 
             // Release idempotency lock if used
@@ -171,6 +196,78 @@ public class PaymentController {
         }
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<BatchStatus> createBatch(
+            InputStream xmlPayload,
+            @RequestHeader(value = "X-Api-Client", defaultValue = "unknown") String xApiClient,
+            @RequestHeader(value = "X-Request-Id", required = false) String xRequestId,
+            @RequestHeader(value = "Content-Type") String contentType,
+            @RequestHeader(value = "X-Signature", required = false) String xSignature,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        // Generate X-Request-Id if not provided
+        if (xRequestId == null || xRequestId.trim().isEmpty()) {
+            xRequestId = UUID.randomUUID().toString();
+        }
+
+        // Add context to MDC for logging
+        MDC.put("xRequestId", xRequestId);
+        MDC.put("xApiClient", xApiClient);
+
+        logger.info("Received payment batch request - xRequestId: {}, xApiClient: {}", xRequestId, xApiClient);
+
+        try {
+            validateHeaders(xApiClient, contentType, xSignature);
+
+            BatchStatus batchStatus = batchPaymentService.submitBatch(xmlPayload, xRequestId, xApiClient, authorization);
+
+            if (batchStatus.getStatus() == BatchStatus.Status.ABORTED) {
+                // Entries read before the failure are still being processed; report them with the error
+                return ResponseEntity.badRequest().body(batchStatus);
+            }
+            return ResponseEntity.accepted().body(batchStatus);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Payment batch validation error for xRequestId: {} - {}", xRequestId, e.getMessage());
+            BatchStatus errorStatus = new BatchStatus();
+            errorStatus.setStatus(BatchStatus.Status.ABORTED);
+            errorStatus.setReason("Validation error: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorStatus);
+        } catch (Exception e) {
+            logger.error("Unexpected error processing payment batch for xRequestId: {}", xRequestId, e);
+            BatchStatus errorStatus = new BatchStatus();
+            errorStatus.setStatus(BatchStatus.Status.ABORTED);
+            errorStatus.setReason("Internal server error");
+            return ResponseEntity.internalServerError().body(errorStatus);
+        } finally {
+            // Clear MDC
+            MDC.clear();
+        }
+    }
+
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<BatchStatus> getBatchStatus(
+            @PathVariable String batchId,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        logger.debug("Batch status requested for batchId: {} (offset {}, limit {})", batchId, offset, limit);
+
+        try {
+            BatchStatus batchStatus = batchPaymentService.getBatchStatus(
+                batchId, Math.max(0, offset), Math.max(0, Math.min(limit, MAX_BATCH_PAGE_SIZE)));
+
+            if (batchStatus == null) {
+                logger.warn("Batch not found for batchId: {}", batchId);
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(batchStatus);
+
+        } catch (Exception e) {
+            logger.error("Error retrieving status for batchId: {}", batchId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/status/{txnRef}")
     public ResponseEntity<PaymentResponse> getPaymentStatus(@PathVariable String txnRef) {
         logger.debug("Status check requested for txnRef: {}", txnRef);
@@ -302,31 +399,4 @@ public class PaymentController {
             logger.warn("Missing X-Signature header - using placeholder validation");
         }
     }
-
-    private void handleCoreBankingResponse(String txnRef, CoreBankingService.CoreBankingResponse response) {
-        try {
-            if ("APPROVED".equals(response.getStatus())) {
-                // Update transaction state with success
-                TransactionState txnState = transactionStateService.getTransactionState(txnRef);
-                if (txnState != null) {
-                    txnState.setStatus(TransactionState.Status.SUCCESS);
-                    txnState.setCbsId(response.getCbsId());
-                    txnState.setApprovedAt(response.getApprovedAt() != null ? response.getApprovedAt() : OffsetDateTime.now());
-                    transactionStateService.saveTransactionState(txnState);
-                }
-                
-                logger.info("Payment approved for txnRef: {} with cbsId: {}", txnRef, response.getCbsId());
-            } else {
-                // Update transaction state with failure
-                transactionStateService.updateTransactionStatus(txnRef, TransactionState.Status.FAILED, 
-                    response.getReason());
-                
-                logger.warn("Payment failed for txnRef: {} with reason: {}", txnRef, response.getReason());
-            }
-        } catch (Exception e) {
-            logger.error("Error handling CoreBanking response for txnRef: {}", txnRef, e);
-            transactionStateService.updateTransactionStatus(txnRef, TransactionState.Status.FAILED, 
-                "Internal error processing CoreBanking response");
-        }
-    }
 }
\ No newline at end of file
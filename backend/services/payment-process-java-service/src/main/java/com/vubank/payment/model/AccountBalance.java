@@ -0,0 +1,99 @@
+package com.vubank.payment.model;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cached balance of one account in the Hazelcast "account-balances" map. loadedAt records when the
+ * figure was read from the accounts service, so a debit approved later can tell whether the cached
+ * figure already includes it.
+ *
+ * holds are the funds reserved by payments still waiting for CoreBanking; the available balance is
+ * the balance less every unexpired hold. Both only change inside entry processors on the partition
+ * owner, so a reservation is checked and placed atomically.
+ */
+public class AccountBalance {
+
+    private String accountNumber;
+    private BigDecimal balance;
+    private OffsetDateTime loadedAt;
+    // Keyed by txnRef in placement order; heldAmount is their running total
+    private LinkedHashMap<String, BalanceHold> holds = new LinkedHashMap<>();
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
+    public AccountBalance() {
+    }
+
+    public AccountBalance(String accountNumber, BigDecimal balance, OffsetDateTime loadedAt) {
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+        this.loadedAt = loadedAt;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+
+    public OffsetDateTime getLoadedAt() { return loadedAt; }
+    public void setLoadedAt(OffsetDateTime loadedAt) { this.loadedAt = loadedAt; }
+
+    public Collection<BalanceHold> getHolds() { return holds.values(); }
+
+    public void setHolds(Collection<BalanceHold> holds) {
+        this.holds = new LinkedHashMap<>();
+        this.heldAmount = BigDecimal.ZERO;
+        for (BalanceHold hold : holds) {
+            addHold(hold);
+        }
+    }
+
+    public boolean hasHolds() {
+        return !holds.isEmpty();
+    }
+
+    public BigDecimal getHeldAmount() { return heldAmount; }
+
+    public BigDecimal getAvailableBalance() {
+        return balance.subtract(heldAmount);
+    }
+
+    public BalanceHold findHold(String txnRef) {
+        return holds.get(txnRef);
+    }
+
+    public void addHold(BalanceHold hold) {
+        holds.put(hold.getTxnRef(), hold);
+        heldAmount = heldAmount.add(hold.getAmount());
+    }
+
+    public BalanceHold removeHold(String txnRef) {
+        BalanceHold hold = holds.remove(txnRef);
+        if (hold != null) {
+            heldAmount = heldAmount.subtract(hold.getAmount());
+        }
+        return hold;
+    }
+
+    /**
+     * Drops holds that expired without a CoreBanking answer, returning whether any were dropped.
+     * Holds share one TTL and are kept in placement order, so the scan stops at the first live one.
+     */
+    public boolean removeExpiredHolds(OffsetDateTime now) {
+        boolean removed = false;
+        for (Iterator<BalanceHold> iterator = holds.values().iterator(); iterator.hasNext(); ) {
+            BalanceHold hold = iterator.next();
+            if (!hold.isExpired(now)) {
+                break;
+            }
+            iterator.remove();
+            heldAmount = heldAmount.subtract(hold.getAmount());
+            removed = true;
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.vubank.payment.model;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Funds reserved on an account for one in-flight payment, from admission until CoreBanking
+ * answers. Holds past expiresAt no longer count against the balance and are dropped.
+ */
+public class BalanceHold {
+
+    private final String txnRef;
+    private final BigDecimal amount;
+    private final OffsetDateTime expiresAt;
+
+    public BalanceHold(String txnRef, BigDecimal amount, OffsetDateTime expiresAt) {
+        this.txnRef = txnRef;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTxnRef() { return txnRef; }
+    public BigDecimal getAmount() { return amount; }
+    public OffsetDateTime getExpiresAt() { return expiresAt; }
+
+    public boolean isExpired(OffsetDateTime now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
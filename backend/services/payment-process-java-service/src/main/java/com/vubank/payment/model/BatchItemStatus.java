@@ -0,0 +1,37 @@
+package com.vubank.payment.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemStatus {
+
+    private int index;
+    private String txnRef;
+    private String status;
+    private String reason;
+
+    // Default constructor for JSON serialization
+    public BatchItemStatus() {
+        // Required for JSON deserialization
+    }
+
+    public BatchItemStatus(int index, String txnRef, String status, String reason) {
+        this.index = index;
+        this.txnRef = txnRef;
+        this.status = status;
+        this.reason = reason;
+    }
+
+    // Getters and setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getTxnRef() { return txnRef; }
+    public void setTxnRef(String txnRef) { this.txnRef = txnRef; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
@@ -0,0 +1,73 @@
+package com.vubank.payment.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchStatus {
+
+    public enum Status {
+        RECEIVING, PROCESSING, COMPLETED, ABORTED
+    }
+
+    private String batchId;
+    private Status status;
+    private int totalItems;
+    private int accepted;
+    private int rejected;
+    private int succeeded;
+    private int failed;
+    private String reason;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime completedAt;
+
+    // Page of per-item results, only populated on status reads
+    private List<BatchItemStatus> items;
+
+    // Default constructor for JSON serialization
+    public BatchStatus() {
+        // Required for JSON deserialization
+    }
+
+    public BatchStatus(String batchId) {
+        this.batchId = batchId;
+        this.status = Status.RECEIVING;
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    // Getters and setters
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getTotalItems() { return totalItems; }
+    public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
+
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+
+    public OffsetDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(OffsetDateTime completedAt) { this.completedAt = completedAt; }
+
+    public List<BatchItemStatus> getItems() { return items; }
+    public void setItems(List<BatchItemStatus> items) { this.items = items; }
+}
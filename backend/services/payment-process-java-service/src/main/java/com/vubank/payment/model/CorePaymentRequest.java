@@ -0,0 +1,32 @@
+package com.vubank.payment.model;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Version 1 of the payment contract sent to CoreBanking's /core/payments and /core/payments/batch.
+ * The receiving side is com.vubank.core.model.CorePaymentRequest in corebanking, which reads the
+ * same JSON shape. Fields may be added without a version change; renaming or retyping one needs a
+ * new version on both sides.
+ */
+public record CorePaymentRequest(
+        int version,
+        String txnRef,
+        String paymentType,
+        BigDecimal amount,
+        String currency,
+        Payer payer,
+        Payee payee,
+        Meta meta,
+        HeadersEcho headers) {
+
+    public static final int CURRENT_VERSION = 1;
+
+    public record Payer(String name, String accountNo, String accountType) {}
+
+    public record Payee(String name, String accountNo, String ifsc) {}
+
+    public record Meta(String branchName, OffsetDateTime initiatedAt, String comments) {}
+
+    public record HeadersEcho(String xRequestId, String xApiClient) {}
+}
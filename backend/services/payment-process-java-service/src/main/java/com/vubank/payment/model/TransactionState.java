@@ -1,33 +1,63 @@
 package com.vubank.payment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
+/**
+ * Transaction state held in the Hazelcast "transaction-states" map, stored with Compact
+ * serialization (see TransactionStateSerializer). The Jackson annotations remain only for reading
+ * entries written by the earlier JSON format, whose duplicated alias fields
+ * (transactionRef, fromAccountNo, toAccountNo, ifscCode) are ignored.
+ */
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class TransactionState {
-    
+
     public enum Status {
-        RECEIVED, VALIDATED, IN_PROGRESS, SUCCESS, FAILED, INITIATED
+        RECEIVED, VALIDATED, IN_PROGRESS, SUCCESS, FAILED, INITIATED;
+
+        public boolean isTerminal() {
+            return this == SUCCESS || this == FAILED;
+        }
+
+        /**
+         * Legal lifecycle: RECEIVED (or INITIATED) -> VALIDATED -> IN_PROGRESS -> SUCCESS | FAILED,
+         * with FAILED reachable from any non-terminal state. Terminal states never change.
+         */
+        public boolean canTransitionTo(Status next) {
+            if (isTerminal()) {
+                return false;
+            }
+            if (next == FAILED) {
+                return true;
+            }
+            switch (this) {
+                case RECEIVED:
+                case INITIATED:
+                    return next == VALIDATED;
+                case VALIDATED:
+                    return next == IN_PROGRESS;
+                case IN_PROGRESS:
+                    return next == SUCCESS;
+                default:
+                    return false;
+            }
+        }
     }
 
     private String txnRef;
-    private String transactionRef; // Alias for txnRef for compatibility
     private Status status;
-    private String payloadXml;
-    private String payloadJson;
     private String paymentType;
     private BigDecimal amount;
     private String payerAccount;
     private String payeeAccount;
     private String payeeName;
-    private String fromAccountNo;
-    private String toAccountNo;
     private String ifsc;
-    private String ifscCode;
     private String comments;
-    
+
     // Timestamps
     private OffsetDateTime createdAt;
     private OffsetDateTime updatedAt;
@@ -35,7 +65,7 @@ public class TransactionState {
     private OffsetDateTime validatedAt;
     private OffsetDateTime inProgressAt;
     private OffsetDateTime approvedAt;
-    
+
     // CoreBanking response
     private String cbsId;
     private String failureReason;
@@ -45,9 +75,9 @@ public class TransactionState {
     private String xRequestId;
     private String xApiClient;
 
-    // Default constructor for JSON serialization
+    // Default constructor for serialization
     public TransactionState() {
-        // Required for JSON deserialization
+        // Required for Compact and JSON deserialization
     }
 
     // Constructor with txnRef
@@ -64,12 +94,6 @@ public class TransactionState {
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
 
-    public String getPayloadXml() { return payloadXml; }
-    public void setPayloadXml(String payloadXml) { this.payloadXml = payloadXml; }
-
-    public String getPayloadJson() { return payloadJson; }
-    public void setPayloadJson(String payloadJson) { this.payloadJson = payloadJson; }
-
     public String getPaymentType() { return paymentType; }
     public void setPaymentType(String paymentType) { this.paymentType = paymentType; }
 
@@ -82,6 +106,9 @@ public class TransactionState {
     public String getPayeeAccount() { return payeeAccount; }
     public void setPayeeAccount(String payeeAccount) { this.payeeAccount = payeeAccount; }
 
+    public String getPayeeName() { return payeeName; }
+    public void setPayeeName(String payeeName) { this.payeeName = payeeName; }
+
     public String getIfsc() { return ifsc; }
     public void setIfsc(String ifsc) { this.ifsc = ifsc; }
 
@@ -91,6 +118,12 @@ public class TransactionState {
     public OffsetDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
 
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public OffsetDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(OffsetDateTime processedAt) { this.processedAt = processedAt; }
+
     public OffsetDateTime getValidatedAt() { return validatedAt; }
     public void setValidatedAt(OffsetDateTime validatedAt) { this.validatedAt = validatedAt; }
 
@@ -106,34 +139,12 @@ public class TransactionState {
     public String getFailureReason() { return failureReason; }
     public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
 
+    public String getCoreBankingResponse() { return coreBankingResponse; }
+    public void setCoreBankingResponse(String coreBankingResponse) { this.coreBankingResponse = coreBankingResponse; }
+
     public String getXRequestId() { return xRequestId; }
     public void setXRequestId(String xRequestId) { this.xRequestId = xRequestId; }
 
     public String getXApiClient() { return xApiClient; }
     public void setXApiClient(String xApiClient) { this.xApiClient = xApiClient; }
-
-    // Additional getters/setters for compatibility
-    public String getTransactionRef() { return txnRef; }
-    public void setTransactionRef(String transactionRef) { this.txnRef = transactionRef; }
-
-    public String getPayeeName() { return payeeName; }
-    public void setPayeeName(String payeeName) { this.payeeName = payeeName; }
-
-    public String getFromAccountNo() { return fromAccountNo; }
-    public void setFromAccountNo(String fromAccountNo) { this.fromAccountNo = fromAccountNo; }
-
-    public String getToAccountNo() { return toAccountNo; }
-    public void setToAccountNo(String toAccountNo) { this.toAccountNo = toAccountNo; }
-
-    public String getIfscCode() { return ifscCode; }
-    public void setIfscCode(String ifscCode) { this.ifscCode = ifscCode; }
-
-    public OffsetDateTime getUpdatedAt() { return updatedAt; }
-    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
-
-    public OffsetDateTime getProcessedAt() { return processedAt; }
-    public void setProcessedAt(OffsetDateTime processedAt) { this.processedAt = processedAt; }
-
-    public String getCoreBankingResponse() { return coreBankingResponse; }
-    public void setCoreBankingResponse(String coreBankingResponse) { this.coreBankingResponse = coreBankingResponse; }
-}
\ No newline at end of file
+}
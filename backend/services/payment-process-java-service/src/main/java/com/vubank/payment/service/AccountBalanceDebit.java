@@ -0,0 +1,78 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Decrements a cached balance on the partition owner after CoreBanking approved a debit, so
+ * concurrent approvals against one account never overwrite each other's decrement, and settles
+ * the payment's hold in the same step. Without a hold (expired, or the entry was reloaded), a
+ * balance loaded after the debit was submitted already reflects it and is left as is. Returns the
+ * resulting cached balance, or null if the account is not cached.
+ */
+public class AccountBalanceDebit implements EntryProcessor<String, AccountBalance, BigDecimal> {
+
+    private final String txnRef;
+    private final BigDecimal amount;
+    private final OffsetDateTime submittedAt;
+
+    public AccountBalanceDebit(String txnRef, BigDecimal amount, OffsetDateTime submittedAt) {
+        this.txnRef = txnRef;
+        this.amount = amount;
+        this.submittedAt = submittedAt;
+    }
+
+    @Override
+    public BigDecimal process(Map.Entry<String, AccountBalance> entry) {
+        AccountBalance balance = entry.getValue();
+        if (balance == null) {
+            return null;
+        }
+        boolean changed = balance.removeExpiredHolds(OffsetDateTime.now());
+        boolean held = balance.removeHold(txnRef) != null;
+        if (held || balance.getLoadedAt() == null || balance.getLoadedAt().isBefore(submittedAt)) {
+            balance.setBalance(balance.getBalance().subtract(amount));
+            changed = true;
+        }
+        if (changed) {
+            AccountBalanceHold.store(entry, balance);
+        }
+        return balance.getBalance();
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<AccountBalanceDebit> {
+
+        @Override
+        public AccountBalanceDebit read(CompactReader reader) {
+            return new AccountBalanceDebit(reader.readString("txnRef"), reader.readDecimal("amount"),
+                reader.readTimestampWithTimezone("submittedAt"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, AccountBalanceDebit debit) {
+            writer.writeString("txnRef", debit.txnRef);
+            writer.writeDecimal("amount", debit.amount);
+            writer.writeTimestampWithTimezone("submittedAt", debit.submittedAt);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "AccountBalanceDebit";
+        }
+
+        @Override
+        public Class<AccountBalanceDebit> getCompactClass() {
+            return AccountBalanceDebit.class;
+        }
+    }
+}
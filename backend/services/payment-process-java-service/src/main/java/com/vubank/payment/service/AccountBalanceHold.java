@@ -0,0 +1,92 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.ExtendedMapEntry;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+import com.vubank.payment.model.BalanceHold;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserves funds for one payment on the partition owner: the hold is placed only if the available
+ * balance (balance less unexpired holds) covers the amount, so concurrent payments from one
+ * account can never reserve more than it holds. Each account is its own key, so payments from
+ * different accounts never wait on each other. Placing the same txnRef twice is a no-op.
+ * Returns whether the funds are held.
+ */
+public class AccountBalanceHold implements EntryProcessor<String, AccountBalance, Boolean> {
+
+    private final String txnRef;
+    private final BigDecimal amount;
+    private final OffsetDateTime expiresAt;
+
+    public AccountBalanceHold(String txnRef, BigDecimal amount, OffsetDateTime expiresAt) {
+        this.txnRef = txnRef;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public Boolean process(Map.Entry<String, AccountBalance> entry) {
+        AccountBalance balance = entry.getValue();
+        if (balance == null) {
+            return false;
+        }
+        boolean changed = balance.removeExpiredHolds(OffsetDateTime.now());
+        boolean held = balance.findHold(txnRef) != null;
+        if (!held && balance.getAvailableBalance().compareTo(amount) >= 0) {
+            balance.addHold(new BalanceHold(txnRef, amount, expiresAt));
+            held = true;
+            changed = true;
+        }
+        if (changed) {
+            store(entry, balance);
+        }
+        return held;
+    }
+
+    /**
+     * Writes a balance back, pinning it while it carries holds: an entry that expired or was
+     * reloaded would lose its reservations. Without holds the map's TTL applies again. Pinned
+     * entries still get a fresh figure from {@link AccountBalanceRefresh}.
+     */
+    static void store(Map.Entry<String, AccountBalance> entry, AccountBalance balance) {
+        long ttlSeconds = balance.hasHolds() ? 0 : -1;
+        ((ExtendedMapEntry<String, AccountBalance>) entry).setValue(balance, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<AccountBalanceHold> {
+
+        @Override
+        public AccountBalanceHold read(CompactReader reader) {
+            return new AccountBalanceHold(reader.readString("txnRef"), reader.readDecimal("amount"),
+                reader.readTimestampWithTimezone("expiresAt"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, AccountBalanceHold hold) {
+            writer.writeString("txnRef", hold.txnRef);
+            writer.writeDecimal("amount", hold.amount);
+            writer.writeTimestampWithTimezone("expiresAt", hold.expiresAt);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "AccountBalanceHold";
+        }
+
+        @Override
+        public Class<AccountBalanceHold> getCompactClass() {
+            return AccountBalanceHold.class;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Returns the funds held for a payment CoreBanking did not approve. Expired holds are dropped at
+ * the same time; with a null txnRef the processor only drops expired holds, which is how the
+ * periodic sweep reclaims holds whose CoreBanking answer never arrived. Returns whether anything
+ * was removed.
+ */
+public class AccountBalanceHoldRelease implements EntryProcessor<String, AccountBalance, Boolean> {
+
+    private final String txnRef;
+
+    public AccountBalanceHoldRelease(String txnRef) {
+        this.txnRef = txnRef;
+    }
+
+    @Override
+    public Boolean process(Map.Entry<String, AccountBalance> entry) {
+        AccountBalance balance = entry.getValue();
+        if (balance == null) {
+            return false;
+        }
+        boolean changed = balance.removeExpiredHolds(OffsetDateTime.now());
+        if (txnRef != null) {
+            changed |= balance.removeHold(txnRef) != null;
+        }
+        if (changed) {
+            AccountBalanceHold.store(entry, balance);
+        }
+        return changed;
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<AccountBalanceHoldRelease> {
+
+        @Override
+        public AccountBalanceHoldRelease read(CompactReader reader) {
+            return new AccountBalanceHoldRelease(reader.readString("txnRef"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, AccountBalanceHoldRelease release) {
+            writer.writeString("txnRef", release.txnRef);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "AccountBalanceHoldRelease";
+        }
+
+        @Override
+        public Class<AccountBalanceHoldRelease> getCompactClass() {
+            return AccountBalanceHoldRelease.class;
+        }
+    }
+}
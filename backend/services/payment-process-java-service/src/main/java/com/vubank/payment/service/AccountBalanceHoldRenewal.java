@@ -0,0 +1,74 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+import com.vubank.payment.model.BalanceHold;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Pushes back the expiry of a payment's hold while its CoreBanking outcome is being reconciled, so
+ * the funds stay reserved until CoreBanking says whether it debited them. The renewed hold expires
+ * after every other hold on the account, so it moves to the end of the placement order that
+ * {@link AccountBalance#removeExpiredHolds} relies on. Returns whether the hold is still in place.
+ */
+public class AccountBalanceHoldRenewal implements EntryProcessor<String, AccountBalance, Boolean> {
+
+    private final String txnRef;
+    private final OffsetDateTime expiresAt;
+
+    public AccountBalanceHoldRenewal(String txnRef, OffsetDateTime expiresAt) {
+        this.txnRef = txnRef;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public Boolean process(Map.Entry<String, AccountBalance> entry) {
+        AccountBalance balance = entry.getValue();
+        if (balance == null) {
+            return false;
+        }
+        boolean changed = balance.removeExpiredHolds(OffsetDateTime.now());
+        BalanceHold hold = balance.removeHold(txnRef);
+        if (hold != null) {
+            balance.addHold(new BalanceHold(txnRef, hold.getAmount(), expiresAt));
+            changed = true;
+        }
+        if (changed) {
+            AccountBalanceHold.store(entry, balance);
+        }
+        return hold != null;
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<AccountBalanceHoldRenewal> {
+
+        @Override
+        public AccountBalanceHoldRenewal read(CompactReader reader) {
+            return new AccountBalanceHoldRenewal(reader.readString("txnRef"),
+                reader.readTimestampWithTimezone("expiresAt"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, AccountBalanceHoldRenewal renewal) {
+            writer.writeString("txnRef", renewal.txnRef);
+            writer.writeTimestampWithTimezone("expiresAt", renewal.expiresAt);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "AccountBalanceHoldRenewal";
+        }
+
+        @Override
+        public Class<AccountBalanceHoldRenewal> getCompactClass() {
+            return AccountBalanceHoldRenewal.class;
+        }
+    }
+}
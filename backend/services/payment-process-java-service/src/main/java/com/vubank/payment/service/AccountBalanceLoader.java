@@ -0,0 +1,87 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.MapLoader;
+import com.vubank.payment.model.AccountBalance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads balances into the "account-balances" map from the accounts service
+ * (GET /internal/accounts/balance/{accountNumber}) on a cache miss, authenticated with the
+ * {@link ServiceTokenProvider} token. Nothing is preloaded; unknown or inactive accounts load as
+ * absent, and any other failure propagates to the caller.
+ */
+@Component
+public class AccountBalanceLoader implements MapLoader<String, AccountBalance> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBalanceLoader.class);
+
+    @Value("${accounts.service.url:http://accounts-go-service:8002}")
+    private String accountsServiceUrl;
+
+    private final RestTemplate restTemplate;
+    private final ServiceTokenProvider serviceTokenProvider;
+
+    public AccountBalanceLoader(RestTemplate restTemplate, ServiceTokenProvider serviceTokenProvider) {
+        this.restTemplate = restTemplate;
+        this.serviceTokenProvider = serviceTokenProvider;
+    }
+
+    @Override
+    public AccountBalance load(String accountNumber) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(
+                accountsServiceUrl + "/internal/accounts/balance/{accountNumber}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                Map.class,
+                accountNumber);
+
+            Map<String, Object> body = response.getBody();
+            if (body == null || body.get("balance") == null) {
+                return null;
+            }
+            BigDecimal balance = new BigDecimal(body.get("balance").toString());
+            logger.debug("Loaded balance for account {}: {}", accountNumber, balance);
+            return new AccountBalance(accountNumber, balance, OffsetDateTime.now());
+        } catch (HttpClientErrorException.NotFound e) {
+            logger.debug("Account {} not found or inactive in accounts service", accountNumber);
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, AccountBalance> loadAll(Collection<String> accountNumbers) {
+        Map<String, AccountBalance> balances = new HashMap<>(accountNumbers.size() * 2);
+        for (String accountNumber : accountNumbers) {
+            AccountBalance balance = load(accountNumber);
+            if (balance != null) {
+                balances.put(accountNumber, balance);
+            }
+        }
+        return balances;
+    }
+
+    @Override
+    public Iterable<String> loadAllKeys() {
+        // No eager preload: balances are loaded per account on first use
+        return null;
+    }
+}
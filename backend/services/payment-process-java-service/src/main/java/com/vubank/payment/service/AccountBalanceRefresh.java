@@ -0,0 +1,73 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.AccountBalance;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Replaces a cached balance with a figure freshly read from the accounts service, keeping the
+ * entry's holds. Entries that carry holds are never reloaded by the map, so without this the figure
+ * of a busy account would only ever move by the debits this service saw. The figure is applied only
+ * if the cached balance is still the one seen before loading: a debit settled in between is not in
+ * the new figure either, and the next refresh tries again. Returns whether the entry was refreshed.
+ */
+public class AccountBalanceRefresh implements EntryProcessor<String, AccountBalance, Boolean> {
+
+    private final BigDecimal expectedBalance;
+    private final BigDecimal balance;
+    private final OffsetDateTime loadedAt;
+
+    public AccountBalanceRefresh(BigDecimal expectedBalance, BigDecimal balance, OffsetDateTime loadedAt) {
+        this.expectedBalance = expectedBalance;
+        this.balance = balance;
+        this.loadedAt = loadedAt;
+    }
+
+    @Override
+    public Boolean process(Map.Entry<String, AccountBalance> entry) {
+        AccountBalance cached = entry.getValue();
+        if (cached == null || cached.getBalance().compareTo(expectedBalance) != 0) {
+            return false;
+        }
+        cached.removeExpiredHolds(OffsetDateTime.now());
+        cached.setBalance(balance);
+        cached.setLoadedAt(loadedAt);
+        AccountBalanceHold.store(entry, cached);
+        return true;
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<AccountBalanceRefresh> {
+
+        @Override
+        public AccountBalanceRefresh read(CompactReader reader) {
+            return new AccountBalanceRefresh(reader.readDecimal("expectedBalance"), reader.readDecimal("balance"),
+                reader.readTimestampWithTimezone("loadedAt"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, AccountBalanceRefresh refresh) {
+            writer.writeDecimal("expectedBalance", refresh.expectedBalance);
+            writer.writeDecimal("balance", refresh.balance);
+            writer.writeTimestampWithTimezone("loadedAt", refresh.loadedAt);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "AccountBalanceRefresh";
+        }
+
+        @Override
+        public Class<AccountBalanceRefresh> getCompactClass() {
+            return AccountBalanceRefresh.class;
+        }
+    }
+}
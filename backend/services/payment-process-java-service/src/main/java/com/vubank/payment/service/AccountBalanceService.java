@@ -0,0 +1,221 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.vubank.payment.model.AccountBalance;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account balances backed by the accounts service. Reads go through the "account-balances" map,
+ * whose near cache answers repeat reads locally and whose {@link AccountBalanceLoader} fills
+ * misses, and Hazelcast invalidates every member's near cache entry on each change.
+ *
+ * Payments reserve funds with a hold before they go to CoreBanking ({@link AccountBalanceHold});
+ * an approval settles the hold into the balance ({@link AccountBalanceDebit}) and a business rejection
+ * releases it ({@link AccountBalanceHoldRelease}). Any other answer keeps the hold, renewed
+ * ({@link AccountBalanceHoldRenewal}) while GET /core/payments/by-txn-ref/{txnRef} is polled every
+ * reconcile-interval-ms for what CoreBanking did. Holds whose answer never arrives expire after
+ * hold-ttl-seconds and are swept from this member's entries every hold-sweep-interval-ms; the same
+ * pass re-reads figures older than cache.ttl from the accounts service ({@link AccountBalanceRefresh}),
+ * since entries carrying holds are never reloaded by the map.
+ */
+@Service
+public class AccountBalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBalanceService.class);
+    public static final String ACCOUNT_BALANCES_MAP = "account-balances";
+
+    @Value("${transaction.balance.hold-ttl-seconds:120}")
+    private long holdTtlSeconds;
+
+    @Value("${transaction.balance.cache.ttl:300}")
+    private long refreshAfterSeconds;
+
+    @Value("${transaction.balance.reconcile-interval-ms:30000}")
+    private long reconcileIntervalMs;
+
+    @Value("${transaction.balance.reconcile-max-attempts:10}")
+    private int reconcileMaxAttempts;
+
+    private final HazelcastInstance hazelcastInstance;
+    private final AccountBalanceLoader accountBalanceLoader;
+    private final CoreBankingService coreBankingService;
+    private final ScheduledExecutorService balanceMaintenance;
+
+    public AccountBalanceService(HazelcastInstance hazelcastInstance,
+                                 AccountBalanceLoader accountBalanceLoader,
+                                 CoreBankingService coreBankingService,
+                                 @Value("${transaction.balance.hold-sweep-interval-ms:30000}") long sweepIntervalMs) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.accountBalanceLoader = accountBalanceLoader;
+        this.coreBankingService = coreBankingService;
+        this.balanceMaintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        balanceMaintenance.scheduleWithFixedDelay(this::maintainOwnedBalances, sweepIntervalMs, sweepIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        balanceMaintenance.shutdownNow();
+    }
+
+    /**
+     * Available balance (balance less active holds), or null if the account is unknown or inactive.
+     * A balance that cannot be loaded throws rather than reading as zero.
+     */
+    public BigDecimal getAccountBalance(String accountNumber) {
+        AccountBalance balance = balancesMap().get(accountNumber);
+        if (balance == null) {
+            logger.warn("No balance available for account: {}", accountNumber);
+            return null;
+        }
+        return balance.getAvailableBalance();
+    }
+
+    /**
+     * Reserves amount for txnRef. False when the available balance does not cover it or the account
+     * is unknown; a balance that cannot be loaded throws, so callers can tell it from missing funds.
+     */
+    public boolean placeHold(String accountNumber, String txnRef, BigDecimal amount) {
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusSeconds(holdTtlSeconds);
+        boolean held = balancesMap().executeOnKey(accountNumber, new AccountBalanceHold(txnRef, amount, expiresAt));
+        if (!held) {
+            logger.warn("Could not hold {} on account {} for txnRef: {}", amount, accountNumber, txnRef);
+        }
+        return held;
+    }
+
+    /**
+     * Settles the hold of a CoreBanking-approved payment into the cached balance without waiting for
+     * the result.
+     */
+    public void applyApprovedDebit(String accountNumber, String txnRef, BigDecimal amount, OffsetDateTime submittedAt) {
+        balancesMap().submitToKey(accountNumber, new AccountBalanceDebit(txnRef, amount, submittedAt))
+            .whenComplete((newBalance, error) -> {
+                if (error != null) {
+                    // Leave the entry alone: evicting it would also drop other payments' holds, and
+                    // this payment's hold runs out on its own
+                    logger.warn("Failed to apply debit of txnRef {} to cached balance of account {}: {}",
+                        txnRef, accountNumber, error.getMessage());
+                } else {
+                    logger.debug("Cached balance for account {} is now {}", accountNumber, newBalance);
+                }
+            });
+    }
+
+    /**
+     * Returns the held funds of a payment CoreBanking did not approve, without waiting for the result.
+     */
+    public void releaseHold(String accountNumber, String txnRef) {
+        balancesMap().submitToKey(accountNumber, new AccountBalanceHoldRelease(txnRef))
+            .whenComplete((released, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to release hold of txnRef {} on account {}: {}",
+                        txnRef, accountNumber, error.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Applies CoreBanking's answer to a payment's hold. Only a business rejection releases it. When
+     * the outcome is unknown (timeout, lost response, an internal error or a duplicate txnRef on the
+     * CoreBanking side) the account may already be debited, so the hold stays until the status
+     * lookup settles it.
+     */
+    public void settleHold(String accountNumber, String txnRef, BigDecimal amount, OffsetDateTime submittedAt,
+                           CoreBankingService.CoreBankingResponse response) {
+        if ("APPROVED".equals(response.getStatus())) {
+            applyApprovedDebit(accountNumber, txnRef, amount, submittedAt);
+        } else if (response.isOutcomeKnown()) {
+            releaseHold(accountNumber, txnRef);
+        } else {
+            logger.warn("Outcome of txnRef {} is {}; keeping its hold on account {} until CoreBanking confirms it",
+                txnRef, response.getStatus(), accountNumber);
+            scheduleReconciliation(accountNumber, txnRef, amount, submittedAt, 1);
+        }
+    }
+
+    private void scheduleReconciliation(String accountNumber, String txnRef, BigDecimal amount,
+                                        OffsetDateTime submittedAt, int attempt) {
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusSeconds(holdTtlSeconds);
+        balancesMap().submitToKey(accountNumber, new AccountBalanceHoldRenewal(txnRef, expiresAt))
+            .whenComplete((held, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to renew hold of txnRef {} on account {}: {}",
+                        txnRef, accountNumber, error.getMessage());
+                }
+            });
+        balanceMaintenance.schedule(() -> reconcileHold(accountNumber, txnRef, amount, submittedAt, attempt),
+            reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconcileHold(String accountNumber, String txnRef, BigDecimal amount,
+                               OffsetDateTime submittedAt, int attempt) {
+        coreBankingService.lookupPayment(txnRef).whenComplete((response, error) -> {
+            if (error == null && response.isOutcomeKnown()) {
+                logger.info("Reconciled txnRef {} as {} after {} status lookups", txnRef, response.getStatus(), attempt);
+                settleHold(accountNumber, txnRef, amount, submittedAt, response);
+            } else if (attempt < reconcileMaxAttempts) {
+                scheduleReconciliation(accountNumber, txnRef, amount, submittedAt, attempt + 1);
+            } else if (error == null && "NOT_FOUND".equals(response.getStatus())) {
+                logger.warn("CoreBanking never recorded txnRef {}; releasing its hold on account {}", txnRef, accountNumber);
+                releaseHold(accountNumber, txnRef);
+            } else {
+                // The hold now runs out on its own and the next refresh picks up whatever CoreBanking did
+                logger.error("Could not reconcile txnRef {} on account {} after {} status lookups",
+                    txnRef, accountNumber, attempt);
+            }
+        });
+    }
+
+    private void maintainOwnedBalances() {
+        try {
+            IMap<String, AccountBalance> balancesMap = balancesMap();
+            // Every member maintains only the entries it owns
+            Set<String> ownedAccounts = balancesMap.localKeySet();
+            if (ownedAccounts.isEmpty()) {
+                return;
+            }
+            balancesMap.executeOnKeys(ownedAccounts, new AccountBalanceHoldRelease(null));
+            refreshStaleBalances(balancesMap, ownedAccounts);
+        } catch (Exception e) {
+            logger.warn("Balance maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void refreshStaleBalances(IMap<String, AccountBalance> balancesMap, Set<String> ownedAccounts) {
+        OffsetDateTime staleBefore = OffsetDateTime.now().minusSeconds(refreshAfterSeconds);
+        for (String accountNumber : ownedAccounts) {
+            AccountBalance cached = balancesMap.get(accountNumber);
+            if (cached == null || (cached.getLoadedAt() != null && cached.getLoadedAt().isAfter(staleBefore))) {
+                continue;
+            }
+            AccountBalance fresh = accountBalanceLoader.load(accountNumber);
+            if (fresh == null) {
+                continue;
+            }
+            boolean refreshed = balancesMap.executeOnKey(accountNumber,
+                new AccountBalanceRefresh(cached.getBalance(), fresh.getBalance(), fresh.getLoadedAt()));
+            logger.debug("Refreshed balance of account {} to {}: {}", accountNumber, fresh.getBalance(), refreshed);
+        }
+    }
+
+    private IMap<String, AccountBalance> balancesMap() {
+        return hazelcastInstance.getMap(ACCOUNT_BALANCES_MAP);
+    }
+}
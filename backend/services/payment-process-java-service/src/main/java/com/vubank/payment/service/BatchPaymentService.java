@@ -0,0 +1,440 @@
+package com.vubank.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.vubank.payment.model.BatchItemStatus;
+import com.vubank.payment.model.BatchStatus;
+import com.vubank.payment.model.PaymentRequest;
+import com.vubank.payment.model.TransactionState;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Ingests multi-payment XML files. Entries are streamed off the request body and processed in
+ * fixed-size chunks: each chunk is validated in parallel, written to Hazelcast with one putAll per
+ * map, and forwarded to CoreBanking. At most {@code batch.max-in-flight-chunks} chunks are waiting on
+ * CoreBanking at any time; once that limit is hit the parser blocks, so memory stays bounded by
+ * chunk size rather than file size. The request thread is the parser, so the POST stays open until
+ * the last chunk has been handed to CoreBanking, waiting up to batch.chunk-slot-timeout-ms for each
+ * slot.
+ */
+@Service
+public class BatchPaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchPaymentService.class);
+    private static final String BATCHES_MAP = "payment-batches";
+    private static final String BATCH_ITEMS_MAP = "payment-batch-items";
+
+    private final XmlParsingService xmlParsingService;
+    private final HazelcastTransactionStateService transactionStateService;
+    private final CoreBankingService coreBankingService;
+    private final AccountBalanceService accountBalanceService;
+    private final HazelcastInstance hazelcastInstance;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService validationExecutor;
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+    private final long chunkSlotTimeoutMs;
+
+    public BatchPaymentService(XmlParsingService xmlParsingService,
+                               HazelcastTransactionStateService transactionStateService,
+                               CoreBankingService coreBankingService,
+                               AccountBalanceService accountBalanceService,
+                               HazelcastInstance hazelcastInstance,
+                               @Value("${batch.chunk-size:100}") int chunkSize,
+                               @Value("${batch.max-in-flight-chunks:4}") int maxInFlightChunks,
+                               @Value("${batch.chunk-slot-timeout-ms:300000}") long chunkSlotTimeoutMs,
+                               @Value("${batch.validation.threads:4}") int validationThreads) {
+        this.xmlParsingService = xmlParsingService;
+        this.transactionStateService = transactionStateService;
+        this.coreBankingService = coreBankingService;
+        this.accountBalanceService = accountBalanceService;
+        this.hazelcastInstance = hazelcastInstance;
+        this.chunkSize = chunkSize;
+        this.maxInFlightChunks = maxInFlightChunks;
+        this.chunkSlotTimeoutMs = chunkSlotTimeoutMs;
+        this.objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules(); // Register JSR-310 module for OffsetDateTime
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.validationExecutor = Executors.newFixedThreadPool(validationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-validation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdown();
+    }
+
+    /**
+     * Reads the whole batch from the stream and returns once every entry has been validated and
+     * handed to CoreBanking, so the calling thread is held for the whole file and, under
+     * backpressure, for as long as CoreBanking takes to drain all but the last few chunks. Results
+     * from CoreBanking keep arriving afterwards and are visible through
+     * {@link #getBatchStatus(String, int, int)}.
+     */
+    public BatchStatus submitBatch(InputStream xmlStream, String xRequestId, String xApiClient, String authorization) {
+        BatchTracker tracker = new BatchTracker(new BatchStatus(UUID.randomUUID().toString()), maxInFlightChunks);
+        tracker.publish(this::saveBatchStatus);
+
+        logger.info("Receiving payment batch {} for xRequestId: {}", tracker.batchId, xRequestId);
+
+        List<XmlParsingService.BatchEntry> chunk = new ArrayList<>(chunkSize);
+        try {
+            int total = xmlParsingService.parseBatch(xmlStream, xRequestId, xApiClient, entry -> {
+                chunk.add(entry);
+                if (chunk.size() >= chunkSize) {
+                    processChunk(tracker, new ArrayList<>(chunk), authorization);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                processChunk(tracker, new ArrayList<>(chunk), authorization);
+            }
+
+            tracker.finishReceiving(total, null);
+            logger.info("Payment batch {} received: {} entries, {} accepted, {} rejected",
+                       tracker.batchId, total, tracker.accepted.get(), tracker.rejected.get());
+        } catch (RuntimeException e) {
+            // Chunks already handed to CoreBanking keep going; the batch just stops growing
+            tracker.finishReceiving(tracker.received.get(), e.getMessage());
+            logger.warn("Payment batch {} aborted after {} entries: {}", tracker.batchId, tracker.received.get(), e.getMessage());
+        }
+
+        return tracker.publish(this::saveBatchStatus);
+    }
+
+    public BatchStatus getBatchStatus(String batchId, int offset, int limit) {
+        IMap<String, String> batchesMap = hazelcastInstance.getMap(BATCHES_MAP);
+        String statusJson = batchesMap.get(batchId);
+        if (statusJson == null) {
+            return null;
+        }
+
+        try {
+            BatchStatus status = objectMapper.readValue(statusJson, BatchStatus.class);
+
+            int end = Math.min(status.getTotalItems(), offset + limit);
+            Set<String> itemKeys = new LinkedHashSet<>();
+            for (int index = offset; index < end; index++) {
+                itemKeys.add(itemKey(batchId, index));
+            }
+
+            IMap<String, String> itemsMap = hazelcastInstance.getMap(BATCH_ITEMS_MAP);
+            Map<String, String> itemJson = itemsMap.getAll(itemKeys);
+
+            List<BatchItemStatus> items = new ArrayList<>(itemJson.size());
+            List<String> txnRefs = new ArrayList<>();
+            for (String key : itemKeys) {
+                String json = itemJson.get(key);
+                if (json != null) {
+                    BatchItemStatus item = objectMapper.readValue(json, BatchItemStatus.class);
+                    items.add(item);
+                    if (item.getTxnRef() != null) {
+                        txnRefs.add(item.getTxnRef());
+                    }
+                }
+            }
+
+            // Accepted items report the live transaction status rather than the admission result
+            Map<String, TransactionState> states = transactionStateService.getTransactionStates(txnRefs);
+            for (BatchItemStatus item : items) {
+                TransactionState state = item.getTxnRef() != null ? states.get(item.getTxnRef()) : null;
+                if (state != null) {
+                    item.setStatus(state.getStatus().toString());
+                    item.setReason(state.getFailureReason());
+                }
+            }
+
+            status.setItems(items);
+            return status;
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to deserialize batch status for batchId: {}", batchId, e);
+            throw new RuntimeException("Failed to retrieve batch status", e);
+        }
+    }
+
+    private void processChunk(BatchTracker tracker, List<XmlParsingService.BatchEntry> entries, String authorization) {
+        tracker.acquireChunkSlot(chunkSlotTimeoutMs);
+        try {
+            dispatchChunk(tracker, entries, authorization);
+        } catch (RuntimeException e) {
+            tracker.releaseChunkSlot();
+            throw e;
+        }
+    }
+
+    private void dispatchChunk(BatchTracker tracker, List<XmlParsingService.BatchEntry> entries, String authorization) {
+        // Validate entries in parallel off the request thread
+        List<CompletableFuture<BatchItemStatus>> validations = new ArrayList<>(entries.size());
+        for (XmlParsingService.BatchEntry entry : entries) {
+            validations.add(CompletableFuture.supplyAsync(() -> validateEntry(entry), validationExecutor)
+                .exceptionally(e -> new BatchItemStatus(entry.getIndex(), null, "REJECTED",
+                    "Validation failed: " + e.getMessage())));
+        }
+
+        // Wait for every validation before writing, so each hold placed for this chunk is known here
+        List<BatchItemStatus> items = new ArrayList<>(entries.size());
+        Map<String, PaymentRequest> acceptedRequests = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            BatchItemStatus item = validations.get(i).join();
+            items.add(item);
+            if (item.getTxnRef() != null) {
+                acceptedRequests.put(item.getTxnRef(), entries.get(i).getRequest());
+            }
+        }
+
+        OffsetDateTime submittedAt = OffsetDateTime.now();
+        try {
+            writeChunk(tracker, items, acceptedRequests, submittedAt);
+        } catch (RuntimeException e) {
+            rejectChunk(tracker, items, acceptedRequests, e);
+            throw e;
+        }
+        tracker.recordAdmission(entries.size(), acceptedRequests.size());
+
+        List<CompletableFuture<Void>> submissions = new ArrayList<>(acceptedRequests.size());
+        for (Map.Entry<String, PaymentRequest> accepted : acceptedRequests.entrySet()) {
+            String txnRef = accepted.getKey();
+            PaymentRequest request = accepted.getValue();
+            submissions.add(coreBankingService.processPayment(txnRef, request, authorization)
+                .thenAccept(response -> {
+                    transactionStateService.applyCoreBankingResponse(txnRef, response);
+                    accountBalanceService.settleHold(request.getFromAccountNo(), txnRef, request.getAmount(),
+                        submittedAt, response);
+                    tracker.recordResult("APPROVED".equals(response.getStatus()));
+                }));
+        }
+
+        CompletableFuture.allOf(submissions.toArray(new CompletableFuture[0]))
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.error("Chunk of payment batch {} completed with errors", tracker.batchId, error);
+                }
+                tracker.releaseChunkSlot();
+                tracker.publish(this::saveBatchStatus);
+            });
+    }
+
+    private void writeChunk(BatchTracker tracker, List<BatchItemStatus> items,
+                            Map<String, PaymentRequest> acceptedRequests, OffsetDateTime submittedAt) {
+        Map<String, String> itemEntries = new HashMap<>(items.size() * 2);
+        List<TransactionState> acceptedStates = new ArrayList<>(acceptedRequests.size());
+        for (BatchItemStatus item : items) {
+            if (item.getTxnRef() != null) {
+                PaymentRequest request = acceptedRequests.get(item.getTxnRef());
+                TransactionState state = transactionStateService.createInitialState(item.getTxnRef(), request);
+                state.setStatus(TransactionState.Status.IN_PROGRESS);
+                state.setValidatedAt(submittedAt);
+                state.setInProgressAt(submittedAt);
+                state.setXRequestId(request.getXRequestId());
+                state.setXApiClient(request.getXApiClient());
+                acceptedStates.add(state);
+            }
+            itemEntries.put(itemKey(tracker.batchId, item.getIndex()), serializeItem(item));
+        }
+
+        // Bulk writes: one putAll per map for the whole chunk
+        transactionStateService.saveTransactionStates(acceptedStates);
+        hazelcastInstance.<String, String>getMap(BATCH_ITEMS_MAP).putAll(itemEntries);
+    }
+
+    /**
+     * A chunk whose writes failed never reaches CoreBanking: its holds are released and its accepted
+     * entries are recorded as rejected, without a txnRef, so a state written before the failure is
+     * not reported for them.
+     */
+    private void rejectChunk(BatchTracker tracker, List<BatchItemStatus> items,
+                             Map<String, PaymentRequest> acceptedRequests, RuntimeException cause) {
+        logger.error("Failed to write chunk of payment batch {}; releasing {} holds",
+                     tracker.batchId, acceptedRequests.size(), cause);
+
+        Map<String, String> itemEntries = new HashMap<>(items.size() * 2);
+        for (BatchItemStatus item : items) {
+            BatchItemStatus rejected = item;
+            if (item.getTxnRef() != null) {
+                accountBalanceService.releaseHold(acceptedRequests.get(item.getTxnRef()).getFromAccountNo(), item.getTxnRef());
+                rejected = new BatchItemStatus(item.getIndex(), null, "REJECTED", "Batch write failed");
+            }
+            try {
+                itemEntries.put(itemKey(tracker.batchId, item.getIndex()), serializeItem(rejected));
+            } catch (RuntimeException e) {
+                logger.warn("Cannot record rejection of batch {} item {}: {}", tracker.batchId, item.getIndex(), e.getMessage());
+            }
+        }
+        tracker.recordAdmission(items.size(), 0);
+
+        try {
+            hazelcastInstance.<String, String>getMap(BATCH_ITEMS_MAP).putAll(itemEntries);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot record rejected items of payment batch {}: {}", tracker.batchId, e.getMessage());
+        }
+    }
+
+    private String serializeItem(BatchItemStatus item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize batch item " + item.getIndex(), e);
+        }
+    }
+
+    private BatchItemStatus validateEntry(XmlParsingService.BatchEntry entry) {
+        if (entry.getError() != null) {
+            return new BatchItemStatus(entry.getIndex(), null, "REJECTED", entry.getError());
+        }
+
+        PaymentRequest request = entry.getRequest();
+        try {
+            xmlParsingService.validatePaymentRequest(request);
+        } catch (IllegalArgumentException e) {
+            return new BatchItemStatus(entry.getIndex(), null, "REJECTED", e.getMessage());
+        }
+
+        // Reserve the funds, so entries from one account (payroll) never add up to more than it holds
+        String txnRef = UUID.randomUUID().toString();
+        boolean held;
+        try {
+            held = accountBalanceService.placeHold(request.getFromAccountNo(), txnRef, request.getAmount());
+        } catch (RuntimeException e) {
+            logger.warn("Balance of account {} could not be checked for batch item {}: {}",
+                request.getFromAccountNo(), entry.getIndex(), e.getMessage());
+            return new BatchItemStatus(entry.getIndex(), null, "REJECTED", "BALANCE_UNAVAILABLE");
+        }
+        if (!held) {
+            return new BatchItemStatus(entry.getIndex(), null, "REJECTED", "INSUFFICIENT_BALANCE");
+        }
+
+        return new BatchItemStatus(entry.getIndex(), txnRef, "ACCEPTED", null);
+    }
+
+    private void saveBatchStatus(BatchStatus status) {
+        try {
+            IMap<String, String> batchesMap = hazelcastInstance.getMap(BATCHES_MAP);
+            batchesMap.set(status.getBatchId(), objectMapper.writeValueAsString(status));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize batch status for batchId: {}", status.getBatchId(), e);
+        }
+    }
+
+    private static String itemKey(String batchId, int index) {
+        return batchId + ":" + index;
+    }
+
+    /**
+     * Local counters for a batch while it is in flight. Only snapshots go to Hazelcast, and
+     * publish() is synchronized so a later snapshot can never be overwritten by an earlier one.
+     */
+    private static class BatchTracker {
+        private final String batchId;
+        private final BatchStatus status;
+        private final Semaphore chunkSlots;
+        private final AtomicInteger chunksInFlight = new AtomicInteger();
+        private final AtomicInteger received = new AtomicInteger();
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile boolean receiving = true;
+
+        BatchTracker(BatchStatus status, int maxInFlightChunks) {
+            this.batchId = status.getBatchId();
+            this.status = status;
+            this.chunkSlots = new Semaphore(maxInFlightChunks);
+        }
+
+        void acquireChunkSlot(long timeoutMs) {
+            try {
+                // Backpressure: stop reading the file until CoreBanking drains a chunk
+                if (!chunkSlots.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Timed out waiting for CoreBanking to drain batch chunks");
+                }
+                chunksInFlight.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch chunk slot", e);
+            }
+        }
+
+        void releaseChunkSlot() {
+            chunksInFlight.decrementAndGet();
+            chunkSlots.release();
+        }
+
+        void recordAdmission(int entries, int acceptedEntries) {
+            received.addAndGet(entries);
+            accepted.addAndGet(acceptedEntries);
+            rejected.addAndGet(entries - acceptedEntries);
+        }
+
+        void recordResult(boolean approved) {
+            (approved ? succeeded : failed).incrementAndGet();
+        }
+
+        synchronized void finishReceiving(int total, String abortReason) {
+            status.setTotalItems(total);
+            if (abortReason != null) {
+                status.setStatus(BatchStatus.Status.ABORTED);
+                status.setReason(abortReason);
+            }
+            receiving = false;
+        }
+
+        boolean isComplete() {
+            return !receiving && chunksInFlight.get() == 0;
+        }
+
+        synchronized BatchStatus publish(Consumer<BatchStatus> sink) {
+            if (receiving) {
+                status.setTotalItems(received.get());
+            } else if (status.getStatus() != BatchStatus.Status.ABORTED) {
+                status.setStatus(isComplete() ? BatchStatus.Status.COMPLETED : BatchStatus.Status.PROCESSING);
+            }
+            if (!receiving && isComplete() && status.getCompletedAt() == null) {
+                status.setCompletedAt(OffsetDateTime.now());
+            }
+            status.setAccepted(accepted.get());
+            status.setRejected(rejected.get());
+            status.setSucceeded(succeeded.get());
+            status.setFailed(failed.get());
+
+            BatchStatus copy = new BatchStatus(batchId);
+            copy.setStatus(status.getStatus());
+            copy.setTotalItems(status.getTotalItems());
+            copy.setAccepted(status.getAccepted());
+            copy.setRejected(status.getRejected());
+            copy.setSucceeded(status.getSucceeded());
+            copy.setFailed(status.getFailed());
+            copy.setReason(status.getReason());
+            copy.setCreatedAt(status.getCreatedAt());
+            copy.setCompletedAt(status.getCompletedAt());
+            sink.accept(copy);
+            return copy;
+        }
+    }
+}
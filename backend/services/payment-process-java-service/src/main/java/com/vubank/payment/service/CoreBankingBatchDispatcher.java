@@ -0,0 +1,185 @@
+package com.vubank.payment.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vubank.payment.model.CorePaymentRequest;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batches CoreBanking submissions. Payments are queued per Authorization value and sent to
+ * /core/payments/batch when either {@code corebanking.batch.max-size} payments are waiting or the
+ * oldest has waited {@code corebanking.batch.max-wait-ms}, whichever comes first. Each caller gets
+ * its own future, completed with its entry from the batch response.
+ */
+@Component
+public class CoreBankingBatchDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoreBankingBatchDispatcher.class);
+
+    @Value("${corebanking.service.url}")
+    private String coreBankingUrl;
+
+    @Value("${corebanking.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${corebanking.batch.max-size:50}")
+    private int maxBatchSize;
+
+    @Value("${corebanking.batch.max-wait-ms:10}")
+    private long maxWaitMs;
+
+    private final RestTemplate restTemplate;
+    private final ObjectWriter batchWriter;
+    private final ScheduledExecutorService flushScheduler;
+    private final ExecutorService senderExecutor;
+
+    // Guards pendingByAuthorization; held only to add or detach a list, never during I/O
+    private final Object lock = new Object();
+    private final Map<String, List<PendingPayment>> pendingByAuthorization = new HashMap<>();
+
+    public CoreBankingBatchDispatcher(RestTemplate restTemplate, ObjectMapper objectMapper,
+                                      @Value("${corebanking.batch.sender-threads:4}") int senderThreads,
+                                      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this.restTemplate = restTemplate;
+        this.batchWriter = objectMapper.writerFor(new TypeReference<List<CorePaymentRequest>>() {});
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "corebanking-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (virtualThreadsEnabled) {
+            // Sends, and the Hazelcast updates chained onto their futures, each get a virtual thread;
+            // concurrency is then bounded by the HTTP connection pool rather than sender-threads
+            this.senderExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("corebanking-batch-sender-", 1).factory());
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.senderExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "corebanking-batch-sender-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        senderExecutor.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues one canonical payment request and returns a future for its CoreBanking result map.
+     */
+    public CompletableFuture<Map<String, Object>> submit(CorePaymentRequest payload, String authorization) {
+        PendingPayment pending = new PendingPayment(payload);
+        List<PendingPayment> full = null;
+
+        synchronized (lock) {
+            List<PendingPayment> batch = pendingByAuthorization.computeIfAbsent(authorization, key -> new ArrayList<>());
+            batch.add(pending);
+
+            if (batch.size() == 1) {
+                flushScheduler.schedule(() -> flushIfPending(authorization, batch), maxWaitMs, TimeUnit.MILLISECONDS);
+            }
+            if (batch.size() >= maxBatchSize) {
+                pendingByAuthorization.remove(authorization);
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            List<PendingPayment> toSend = full;
+            senderExecutor.execute(() -> send(authorization, toSend));
+        }
+        return pending.future;
+    }
+
+    private void flushIfPending(String authorization, List<PendingPayment> batch) {
+        synchronized (lock) {
+            // The batch may already have been sent because it filled up before the timer fired
+            if (pendingByAuthorization.get(authorization) != batch) {
+                return;
+            }
+            pendingByAuthorization.remove(authorization);
+        }
+        senderExecutor.execute(() -> send(authorization, batch));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void send(String authorization, List<PendingPayment> batch) {
+        String batchRequestId = UUID.randomUUID().toString();
+        try {
+            List<CorePaymentRequest> payloads = new ArrayList<>(batch.size());
+            for (PendingPayment pending : batch) {
+                payloads.add(pending.payload);
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("X-Request-Id", batchRequestId);
+            headers.set("X-Origin-Service", "payment-process");
+            headers.set("Authorization", authorization);
+
+            String url = coreBankingUrl + "/core/payments/batch";
+            logger.info("Sending batch of {} payments to CoreBanking (batch request {})", batch.size(), batchRequestId);
+
+            ResponseEntity<Map> response = restTemplate.exchange(
+                url, HttpMethod.POST, new HttpEntity<>(batchWriter.writeValueAsBytes(payloads), headers), Map.class);
+
+            Map<String, Object> responseBody = response.getBody();
+            List<Map<String, Object>> results = responseBody != null
+                ? (List<Map<String, Object>>) responseBody.get("results") : null;
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("CoreBanking batch response does not match request size "
+                    + batch.size());
+            }
+
+            // Results come back in request order
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            logger.error("CoreBanking batch request {} of {} payments failed", batchRequestId, batch.size(), e);
+            for (PendingPayment pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class PendingPayment {
+        private final CorePaymentRequest payload;
+        private final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+
+        PendingPayment(CorePaymentRequest payload) {
+            this.payload = payload;
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.vubank.payment.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vubank.payment.model.CorePaymentRequest;
 import com.vubank.payment.model.PaymentRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -13,13 +14,15 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.ResourceAccessException;
 
 import java.time.OffsetDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 public class CoreBankingService {
@@ -36,19 +39,29 @@ public class CoreBankingService {
     private String sharedSecret;
 
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final CoreBankingBatchDispatcher batchDispatcher;
+    private final Executor coreBankingExecutor;
+    private final ObjectWriter requestWriter;
 
-    public CoreBankingService(RestTemplate restTemplate) {
+    public CoreBankingService(RestTemplate restTemplate, CoreBankingBatchDispatcher batchDispatcher,
+                              @Qualifier("coreBankingExecutor") Executor coreBankingExecutor,
+                              ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.batchDispatcher = batchDispatcher;
+        this.coreBankingExecutor = coreBankingExecutor;
+        // Serializer resolved once here instead of per request by RestTemplate's converter
+        this.requestWriter = objectMapper.writerFor(CorePaymentRequest.class);
     }
 
     public CompletableFuture<CoreBankingResponse> processPayment(String txnRef, PaymentRequest request, String userAuthorization) {
+        if (batchDispatcher.isEnabled()) {
+            return processPaymentBatched(txnRef, request, userAuthorization);
+        }
+
         return CompletableFuture.supplyAsync(() -> {
             try {
                 // Create canonical JSON payload
-                Map<String, Object> payload = createCanonicalJson(txnRef, request);
+                byte[] payload = requestWriter.writeValueAsBytes(createCanonicalRequest(txnRef, request));
                 
                 // Setup headers
                 HttpHeaders headers = new HttpHeaders();
@@ -56,17 +69,9 @@ public class CoreBankingService {
                 headers.set("X-Request-Id", request.getXRequestId());
                 headers.set("X-Origin-Service", "payment-process");
                 headers.set("X-Txn-Ref", txnRef);
-                
-                // Use user's JWT token if provided, otherwise fallback to shared secret
-                if (userAuthorization != null && !userAuthorization.trim().isEmpty()) {
-                    headers.set("Authorization", userAuthorization);
-                    logger.debug("Using user JWT token for CoreBanking authentication");
-                } else {
-                    headers.set("Authorization", "Bearer " + sharedSecret);
-                    logger.debug("Using shared secret for CoreBanking authentication");
-                }
+                headers.set("Authorization", resolveAuthorization(userAuthorization));
 
-                HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
+                HttpEntity<byte[]> requestEntity = new HttpEntity<>(payload, headers);
 
                 // Make the call to CoreBanking service
                 String url = coreBankingUrl + "/core/payments";
@@ -85,51 +90,90 @@ public class CoreBankingService {
 
                 return mapToCoreBankingResponse(responseBody);
 
-            } catch (ResourceAccessException e) {
-                logger.error("Timeout calling CoreBanking service for txnRef: {}", txnRef, e);
-                return new CoreBankingResponse("TIMEOUT", txnRef, null, null, "CoreBanking service timeout");
             } catch (Exception e) {
-                logger.error("Error calling CoreBanking service for txnRef: {}", txnRef, e);
-                return new CoreBankingResponse("REJECTED", txnRef, null, null, "Internal error: " + e.getMessage());
+                return toFailureResponse(txnRef, e);
+            }
+        }, coreBankingExecutor);
+    }
+
+    private CompletableFuture<CoreBankingResponse> processPaymentBatched(String txnRef, PaymentRequest request, String userAuthorization) {
+        CorePaymentRequest payload = createCanonicalRequest(txnRef, request);
+        logger.debug("Queueing txnRef: {} for batched CoreBanking submission", txnRef);
+
+        return batchDispatcher.submit(payload, resolveAuthorization(userAuthorization))
+            .thenApply(this::mapToCoreBankingResponse)
+            .exceptionally(e -> toFailureResponse(txnRef, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    }
+
+    /**
+     * Asks CoreBanking what became of a payment whose answer was lost
+     * (GET /core/payments/by-txn-ref/{txnRef}). Completes with NOT_FOUND when CoreBanking has no
+     * record of it, and with an outcome that is not {@link CoreBankingResponse#isOutcomeKnown() known}
+     * while it is still PROCESSING or the lookup itself fails.
+     */
+    public CompletableFuture<CoreBankingResponse> lookupPayment(String txnRef) {
+        return CompletableFuture.supplyAsync(() -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("X-Origin-Service", "payment-process");
+            headers.set("Authorization", "Bearer " + sharedSecret);
+
+            try {
+                ResponseEntity<Map> response = restTemplate.exchange(
+                    coreBankingUrl + "/core/payments/by-txn-ref/{txnRef}", HttpMethod.GET,
+                    new HttpEntity<>(headers), Map.class, txnRef);
+
+                Map<String, Object> responseBody = response.getBody();
+                if (responseBody == null) {
+                    throw new RuntimeException("Empty response from CoreBanking service");
+                }
+                return mapToCoreBankingResponse(responseBody);
+            } catch (HttpClientErrorException.NotFound e) {
+                return new CoreBankingResponse("NOT_FOUND", txnRef, null, null, "No payment recorded by CoreBanking");
+            } catch (Exception e) {
+                logger.warn("Status lookup for txnRef: {} failed: {}", txnRef, e.getMessage());
+                return new CoreBankingResponse("UNKNOWN", txnRef, null, null, "Status lookup failed: " + e.getMessage());
             }
-        });
+        }, coreBankingExecutor);
+    }
+
+    private String resolveAuthorization(String userAuthorization) {
+        // Use user's JWT token if provided, otherwise fallback to shared secret
+        if (userAuthorization != null && !userAuthorization.trim().isEmpty()) {
+            logger.debug("Using user JWT token for CoreBanking authentication");
+            return userAuthorization;
+        }
+        logger.debug("Using shared secret for CoreBanking authentication");
+        return "Bearer " + sharedSecret;
     }
 
-    private Map<String, Object> createCanonicalJson(String txnRef, PaymentRequest request) {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("txnRef", txnRef);
-        payload.put("paymentType", request.getPaymentType());
-        payload.put("amount", request.getAmount());
-        payload.put("currency", "INR");
-
-        // Payer details
-        Map<String, Object> payer = new HashMap<>();
-        payer.put("name", request.getCustomerName());
-        payer.put("accountNo", request.getFromAccountNo());
-        payer.put("accountType", "SAVINGS"); // Default for demo
-        payload.put("payer", payer);
-
-        // Payee details
-        Map<String, Object> payee = new HashMap<>();
-        payee.put("name", request.getPayeeName());
-        payee.put("accountNo", request.getToAccountNo());
-        payee.put("ifsc", request.getIfscCode());
-        payload.put("payee", payee);
-
-        // Meta information
-        Map<String, Object> meta = new HashMap<>();
-        meta.put("branchName", request.getBranchName());
-        meta.put("initiatedAt", request.getInitiatedAt().toString());
-        meta.put("comments", request.getComments());
-        payload.put("meta", meta);
-
-        // Headers echo
-        Map<String, Object> headersEcho = new HashMap<>();
-        headersEcho.put("xRequestId", request.getXRequestId());
-        headersEcho.put("xApiClient", request.getXApiClient());
-        payload.put("headers", headersEcho);
-
-        return payload;
+    /**
+     * A 4xx means CoreBanking refused the request without processing it. Timeouts and every other
+     * failure leave the outcome unknown: CoreBanking may still have debited the account.
+     */
+    private CoreBankingResponse toFailureResponse(String txnRef, Throwable e) {
+        if (e instanceof ResourceAccessException) {
+            logger.error("Timeout calling CoreBanking service for txnRef: {}", txnRef, e);
+            return new CoreBankingResponse("TIMEOUT", txnRef, null, null, "CoreBanking service timeout");
+        }
+        if (e instanceof HttpClientErrorException) {
+            logger.error("CoreBanking refused txnRef: {}", txnRef, e);
+            return new CoreBankingResponse("REJECTED", txnRef, null, null, "Rejected by CoreBanking: " + e.getMessage());
+        }
+        logger.error("Error calling CoreBanking service for txnRef: {}", txnRef, e);
+        return new CoreBankingResponse("UNKNOWN", txnRef, null, null, "Internal error: " + e.getMessage());
+    }
+
+    private CorePaymentRequest createCanonicalRequest(String txnRef, PaymentRequest request) {
+        return new CorePaymentRequest(
+            CorePaymentRequest.CURRENT_VERSION,
+            txnRef,
+            request.getPaymentType(),
+            request.getAmount(),
+            "INR",
+            new CorePaymentRequest.Payer(request.getCustomerName(), request.getFromAccountNo(), "SAVINGS"), // Default for demo
+            new CorePaymentRequest.Payee(request.getPayeeName(), request.getToAccountNo(), request.getIfscCode()),
+            new CorePaymentRequest.Meta(request.getBranchName(), request.getInitiatedAt(), request.getComments()),
+            new CorePaymentRequest.HeadersEcho(request.getXRequestId(), request.getXApiClient()));
     }
 
     private CoreBankingResponse mapToCoreBankingResponse(Map<String, Object> responseBody) {
@@ -152,6 +196,9 @@ public class CoreBankingService {
     }
 
     public static class CoreBankingResponse {
+        private static final String INTERNAL_ERROR_REASON = "Internal processing error";
+        private static final String DUPLICATE_REASON = "Duplicate transaction reference";
+
         private final String status;
         private final String txnRef;
         private final String cbsId;
@@ -172,5 +219,21 @@ public class CoreBankingService {
         public String getCbsId() { return cbsId; }
         public OffsetDateTime getApprovedAt() { return approvedAt; }
         public String getReason() { return reason; }
+
+        /**
+         * True once CoreBanking has settled the payment either way; TIMEOUT, UNKNOWN, NOT_FOUND and
+         * PROCESSING leave open whether the account was debited. APPROVED_BALANCE_UPDATE_FAILED,
+         * seen by status lookups, is an approval whose debit did not happen.
+         *
+         * Only a business rejection is final. CoreBanking builds that predate its UNKNOWN status
+         * answered internal errors and duplicate txnRefs with REJECTED although the debit may have
+         * gone through, so those rejections count as unknown too.
+         */
+        public boolean isOutcomeKnown() {
+            if ("REJECTED".equals(status)) {
+                return reason == null || !(reason.startsWith(INTERNAL_ERROR_REASON) || reason.startsWith(DUPLICATE_REASON));
+            }
+            return "APPROVED".equals(status) || "APPROVED_BALANCE_UPDATE_FAILED".equals(status);
+        }
     }
 }
\ No newline at end of file
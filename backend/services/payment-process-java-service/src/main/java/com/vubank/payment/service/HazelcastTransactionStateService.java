@@ -10,102 +10,125 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 
 @Service
 public class HazelcastTransactionStateService {
 
     private static final Logger logger = LoggerFactory.getLogger(HazelcastTransactionStateService.class);
     private static final String TRANSACTION_STATES_MAP = "transaction-states";
-    private static final String BALANCE_CACHE_MAP = "balance-cache";
     private static final String IDEMPOTENCY_LOCKS_MAP = "idempotency-locks";
 
+    // Reads entries written in the earlier JSON format; also used by TransactionStateTransition
+    private static final ObjectMapper LEGACY_OBJECT_MAPPER = new ObjectMapper()
+        .findAndRegisterModules(); // Register JSR-310 module for OffsetDateTime
+
     private final HazelcastInstance hazelcastInstance;
-    private final ObjectMapper objectMapper;
+    private final TransactionStateJournal journal;
 
-    public HazelcastTransactionStateService(HazelcastInstance hazelcastInstance) {
+    public HazelcastTransactionStateService(HazelcastInstance hazelcastInstance, TransactionStateJournal journal) {
         this.hazelcastInstance = hazelcastInstance;
-        this.objectMapper = new ObjectMapper();
-        objectMapper.findAndRegisterModules(); // Register JSR-310 module for OffsetDateTime
+        this.journal = journal;
     }
 
     public void saveTransactionState(TransactionState state) {
-        try {
-            IMap<String, String> statesMap = hazelcastInstance.getMap(TRANSACTION_STATES_MAP);
-            String stateJson = objectMapper.writeValueAsString(state);
-            statesMap.put(state.getTxnRef(), stateJson);
-            logger.debug("Saved transaction state for txnRef: {}", state.getTxnRef());
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to serialize transaction state for txnRef: {}", state.getTxnRef(), e);
-            throw new RuntimeException("Failed to save transaction state", e);
+        statesMap().set(state.getTxnRef(), state);
+        logger.debug("Saved transaction state for txnRef: {}", state.getTxnRef());
+    }
+
+    /**
+     * Writes a group of states in one putAll, which Hazelcast splits into a single operation per
+     * partition owner instead of one round trip per entry.
+     */
+    public void saveTransactionStates(Collection<TransactionState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        Map<String, Object> entries = new HashMap<>(states.size() * 2);
+        for (TransactionState state : states) {
+            entries.put(state.getTxnRef(), state);
         }
+        statesMap().putAll(entries);
+        logger.debug("Saved {} transaction states in bulk", entries.size());
+    }
+
+    public Map<String, TransactionState> getTransactionStates(Collection<String> txnRefs) {
+        Map<String, TransactionState> states = new HashMap<>(txnRefs.size() * 2);
+        if (txnRefs.isEmpty()) {
+            return states;
+        }
+        for (Map.Entry<String, Object> entry : statesMap().getAll(new HashSet<>(txnRefs)).entrySet()) {
+            states.put(entry.getKey(), journal.overlay(toTransactionState(entry.getKey(), entry.getValue())));
+        }
+        return states;
     }
 
     public TransactionState getTransactionState(String txnRef) {
-        try {
-            IMap<String, String> statesMap = hazelcastInstance.getMap(TRANSACTION_STATES_MAP);
-            String stateJson = statesMap.get(txnRef);
-            
-            if (stateJson == null) {
-                logger.debug("Transaction state not found for txnRef: {}", txnRef);
-                return null;
-            }
+        Object value = statesMap().get(txnRef);
+
+        if (value == null) {
+            logger.debug("Transaction state not found for txnRef: {}", txnRef);
+            return null;
+        }
 
-            TransactionState state = objectMapper.readValue(stateJson, TransactionState.class);
-            logger.debug("Retrieved transaction state for txnRef: {}", txnRef);
-            return state;
+        // Include CoreBanking results still waiting in the write-behind journal
+        TransactionState state = journal.overlay(toTransactionState(txnRef, value));
+        logger.debug("Retrieved transaction state for txnRef: {}", txnRef);
+        return state;
+    }
+
+    /**
+     * Values are Compact-serialized {@link TransactionState}s. Entries still holding the earlier JSON
+     * string format are parsed and rewritten in place on first read; the conditional replace leaves
+     * the entry alone if a newer state was written meanwhile. Anything not read again simply expires
+     * with the map TTL.
+     */
+    private TransactionState toTransactionState(String txnRef, Object value) {
+        if (value instanceof TransactionState) {
+            return (TransactionState) value;
+        }
+        String legacyJson = (String) value;
+        TransactionState state = parseLegacyState(txnRef, legacyJson);
+        statesMap().replace(txnRef, legacyJson, state);
+        logger.debug("Migrated JSON transaction state to Compact format for txnRef: {}", txnRef);
+        return state;
+    }
+
+    static TransactionState parseLegacyState(String txnRef, String legacyJson) {
+        try {
+            return LEGACY_OBJECT_MAPPER.readValue(legacyJson, TransactionState.class);
         } catch (JsonProcessingException e) {
             logger.error("Failed to deserialize transaction state for txnRef: {}", txnRef, e);
             throw new RuntimeException("Failed to retrieve transaction state", e);
         }
     }
 
-    public void updateTransactionStatus(String txnRef, TransactionState.Status status, String failureReason) {
-        TransactionState state = getTransactionState(txnRef);
-        if (state != null) {
-            state.setStatus(status);
-            state.setUpdatedAt(OffsetDateTime.now());
-            
-            if (failureReason != null) {
-                state.setFailureReason(failureReason);
-            }
-            
-            // Set specific timestamps based on status
-            switch (status) {
-                case VALIDATED:
-                    state.setValidatedAt(OffsetDateTime.now());
-                    break;
-                case IN_PROGRESS:
-                    state.setInProgressAt(OffsetDateTime.now());
-                    break;
-                case SUCCESS:
-                    state.setProcessedAt(OffsetDateTime.now());
-                    break;
-                default:
-                    break;
-            }
-            
-            saveTransactionState(state);
-            logger.debug("Updated transaction status for txnRef: {} to {}", txnRef, status);
-        } else {
-            logger.warn("Cannot update transaction status - state not found for txnRef: {}", txnRef);
-        }
+    // Object-valued so entries from the JSON format can still be read during migration
+    private IMap<String, Object> statesMap() {
+        return hazelcastInstance.getMap(TRANSACTION_STATES_MAP);
+    }
+
+    /**
+     * Moves a transaction to {@code status} in one atomic round trip to the partition owner.
+     * Returns false when the entry is missing or the transition is not legal from its current status.
+     */
+    public boolean updateTransactionStatus(String txnRef, TransactionState.Status status, String failureReason) {
+        return applyTransition(txnRef, new TransactionStateTransition(status, failureReason), status);
     }
 
     public TransactionState createInitialState(String txnRef, PaymentRequest paymentRequest) {
         TransactionState state = new TransactionState(txnRef);
-        state.setTransactionRef(txnRef);
         state.setStatus(TransactionState.Status.RECEIVED);
         state.setCreatedAt(OffsetDateTime.now());
         state.setUpdatedAt(OffsetDateTime.now());
         state.setAmount(paymentRequest.getAmount());
         state.setPayeeName(paymentRequest.getPayeeName());
-        state.setFromAccountNo(paymentRequest.getFromAccountNo());
-        state.setToAccountNo(paymentRequest.getToAccountNo());
         state.setPayerAccount(paymentRequest.getFromAccountNo());
         state.setPayeeAccount(paymentRequest.getToAccountNo());
-        state.setIfscCode(paymentRequest.getIfscCode());
         state.setIfsc(paymentRequest.getIfscCode());
         state.setComments(paymentRequest.getComments());
         
@@ -113,22 +136,42 @@ public class HazelcastTransactionStateService {
     }
 
     public void updateTransactionWithCoreBankingResponse(String txnRef, String cbsId, String response) {
-        TransactionState state = getTransactionState(txnRef);
-        if (state != null) {
-            state.setCbsId(cbsId);
-            state.setCoreBankingResponse(response);
-            state.setUpdatedAt(OffsetDateTime.now());
-            
-            if (cbsId != null && !cbsId.trim().isEmpty()) {
-                state.setStatus(TransactionState.Status.SUCCESS);
-                state.setProcessedAt(OffsetDateTime.now());
-            }
-            
-            saveTransactionState(state);
+        boolean approved = cbsId != null && !cbsId.trim().isEmpty();
+        TransactionState.Status target = approved ? TransactionState.Status.SUCCESS : null;
+        if (applyTransition(txnRef, new TransactionStateTransition(target, null, cbsId, null, response), target)) {
             logger.debug("Updated transaction with CoreBanking response for txnRef: {}, cbsId: {}", txnRef, cbsId);
+        }
+    }
+
+    /**
+     * Records the CoreBanking outcome in the write-behind journal; it reaches the grid with the next
+     * batched flush and is visible to reads on this member immediately.
+     */
+    public void applyCoreBankingResponse(String txnRef, CoreBankingService.CoreBankingResponse response) {
+        if ("APPROVED".equals(response.getStatus())) {
+            journal.record(txnRef,
+                TransactionStateTransition.approved(response.getCbsId(), response.getApprovedAt()));
+            logger.info("Payment approved for txnRef: {} with cbsId: {}", txnRef, response.getCbsId());
         } else {
-            logger.warn("Cannot update CoreBanking response - state not found for txnRef: {}", txnRef);
+            journal.record(txnRef,
+                new TransactionStateTransition(TransactionState.Status.FAILED, response.getReason()));
+            logger.warn("Payment failed for txnRef: {} with reason: {}", txnRef, response.getReason());
+        }
+    }
+
+    private boolean applyTransition(String txnRef, TransactionStateTransition transition, TransactionState.Status target) {
+        TransactionState.Status previous = statesMap().executeOnKey(txnRef, transition);
+        if (previous == null) {
+            logger.warn("Cannot update transaction status - state not found for txnRef: {}", txnRef);
+            return false;
+        }
+        if (target != null && !previous.canTransitionTo(target)) {
+            logger.warn("Rejected illegal transition {} -> {} for txnRef: {}", previous, target, txnRef);
+            return false;
         }
+        logger.debug("Updated transaction status for txnRef: {} from {} to {}", txnRef, previous,
+            target != null ? target : previous);
+        return true;
     }
 
     public boolean tryLockTransaction(String idempotencyKey) {
@@ -165,42 +208,8 @@ public class HazelcastTransactionStateService {
         }
     }
 
-    public void cacheAccountBalance(String accountNumber, BigDecimal balance) {
-        try {
-            IMap<String, String> balanceMap = hazelcastInstance.getMap(BALANCE_CACHE_MAP);
-            String balanceKey = "bal:" + accountNumber;
-            balanceMap.put(balanceKey, balance.toString());
-            logger.debug("Cached balance for account {}: {}", accountNumber, balance);
-        } catch (Exception e) {
-            logger.warn("Failed to cache balance for account: {} - {}", accountNumber, e.getMessage());
-        }
-    }
-
     // Additional methods required by PaymentController
     public void releaseLockTransaction(String idempotencyKey) {
         releaseLock(idempotencyKey);
     }
-
-    public BigDecimal getAccountBalance(String accountNumber) {
-        try {
-            IMap<String, String> balanceMap = hazelcastInstance.getMap(BALANCE_CACHE_MAP);
-            String balanceKey = "bal:" + accountNumber;
-            String cachedBalance = balanceMap.get(balanceKey);
-            
-            if (cachedBalance != null) {
-                return new BigDecimal(cachedBalance);
-            }
-            
-            // Simulate a balance check - in real implementation, this would call external service
-            BigDecimal simulatedBalance = new BigDecimal("10000.00");
-            cacheAccountBalance(accountNumber, simulatedBalance);
-            logger.debug("Simulated balance for account {}: {}", accountNumber, simulatedBalance);
-            
-            return simulatedBalance;
-        } catch (Exception e) {
-            logger.error("Failed to get balance for account: {}", accountNumber, e);
-            // Return a default balance if there's an error
-            return new BigDecimal("0.00");
-        }
-    }
-}
\ No newline at end of file
+}
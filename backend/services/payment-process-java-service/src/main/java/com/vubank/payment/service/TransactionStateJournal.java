@@ -0,0 +1,270 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.hazelcast.partition.PartitionService;
+import com.vubank.payment.model.TransactionState;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind journal for transaction state transitions that happen after the 202 response
+ * (CoreBanking results). Transitions are recorded locally with their timestamps and flushed every
+ * flush-interval-ms, or sooner once max-pending transactions are waiting, as one entry processor
+ * per partition that applies each key's transitions in order.
+ *
+ * Until a transition reaches the grid, {@link #overlay(TransactionState)} applies it to states read
+ * on this member, so status reads here never go backwards. Two trade-offs follow from buffering:
+ * other members keep reporting the previous state (IN_PROGRESS) for up to one flush interval, and
+ * transitions still buffered when the member dies without a clean shutdown are lost, leaving those
+ * transactions IN_PROGRESS in the grid. CoreBanking's row, and the hold reconciliation of
+ * {@link AccountBalanceService} that reads it, are unaffected; a graceful shutdown flushes first.
+ */
+@Component
+public class TransactionStateJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionStateJournal.class);
+    private static final String TRANSACTION_STATES_MAP = "transaction-states";
+
+    @Value("${transaction.journal.max-pending:1000}")
+    private int maxPending;
+
+    private final HazelcastInstance hazelcastInstance;
+    private final ScheduledExecutorService flushScheduler;
+
+    // Recorded but not yet sent, and sent but not yet acknowledged; both are overlaid on reads
+    private final ConcurrentHashMap<String, List<TransactionStateTransition>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<TransactionStateTransition>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    public TransactionStateJournal(HazelcastInstance hazelcastInstance,
+                                   @Value("${transaction.journal.flush-interval-ms:50}") long flushIntervalMs) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(5, TimeUnit.SECONDS);
+            // Push whatever is left before Hazelcast itself shuts down
+            flush().join();
+        } catch (Exception e) {
+            logger.warn("Failed to flush transaction journal on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public void record(String txnRef, TransactionStateTransition transition) {
+        // Lists are copied on write and never mutated once published, so readers need no locking
+        pending.compute(txnRef, (key, transitions) -> {
+            List<TransactionStateTransition> updated = transitions != null
+                ? new ArrayList<>(transitions) : new ArrayList<>(2);
+            updated.add(transition);
+            return updated;
+        });
+        if (pendingCount.incrementAndGet() >= maxPending && earlyFlushScheduled.compareAndSet(false, true)) {
+            flushScheduler.execute(() -> {
+                earlyFlushScheduled.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    /**
+     * Applies transitions not yet visible in the grid to a state just read from it. Transitions the
+     * grid already has are rejected by the lifecycle rules, so overlaying them again is harmless.
+     */
+    public TransactionState overlay(TransactionState state) {
+        if (state == null) {
+            return null;
+        }
+        applyAll(state, inFlight.get(state.getTxnRef()));
+        applyAll(state, pending.get(state.getTxnRef()));
+        return state;
+    }
+
+    private void applyAll(TransactionState state, List<TransactionStateTransition> transitions) {
+        if (transitions == null) {
+            return;
+        }
+        for (TransactionStateTransition transition : transitions) {
+            transition.applyTo(state);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Transaction journal flush failed", e);
+        }
+    }
+
+    CompletableFuture<Void> flush() {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Detach each key's list; remove() is atomic against concurrent record() calls
+        PartitionService partitionService = hazelcastInstance.getPartitionService();
+        Map<Integer, Map<String, List<TransactionStateTransition>>> byPartition = new HashMap<>();
+        for (String txnRef : pending.keySet()) {
+            List<TransactionStateTransition> transitions = pending.remove(txnRef);
+            if (transitions == null) {
+                continue;
+            }
+            pendingCount.addAndGet(-transitions.size());
+            inFlight.merge(txnRef, transitions, (older, newer) -> {
+                List<TransactionStateTransition> merged = new ArrayList<>(older);
+                merged.addAll(newer);
+                return merged;
+            });
+            byPartition.computeIfAbsent(partitionService.getPartition(txnRef).getPartitionId(), id -> new HashMap<>())
+                .put(txnRef, inFlight.get(txnRef));
+        }
+
+        IMap<String, Object> statesMap = hazelcastInstance.getMap(TRANSACTION_STATES_MAP);
+        List<CompletableFuture<Void>> submissions = new ArrayList<>(byPartition.size());
+        for (Map<String, List<TransactionStateTransition>> batch : byPartition.values()) {
+            submissions.add(statesMap.submitToKeys(batch.keySet(), new Flush(batch))
+                .toCompletableFuture()
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to flush {} journaled transaction states, re-queueing", batch.size(), error);
+                        requeue(batch);
+                    } else {
+                        // Conditional remove: a later flush may have merged newer transitions in
+                        batch.forEach(inFlight::remove);
+                    }
+                    return null;
+                }));
+        }
+        logger.debug("Flushing journaled transitions for {} transactions in {} partition batches",
+            byPartition.values().stream().mapToInt(Map::size).sum(), submissions.size());
+        return CompletableFuture.allOf(submissions.toArray(new CompletableFuture[0]));
+    }
+
+    private void requeue(Map<String, List<TransactionStateTransition>> batch) {
+        batch.forEach((txnRef, transitions) -> {
+            inFlight.remove(txnRef, transitions);
+            pending.merge(txnRef, new ArrayList<>(transitions), (newer, failed) -> {
+                failed.addAll(newer);
+                return failed;
+            });
+            pendingCount.addAndGet(transitions.size());
+        });
+    }
+
+    /**
+     * Entry processor carrying the journaled transitions for every key of one partition.
+     */
+    public static class Flush implements EntryProcessor<String, Object, Void> {
+
+        private final Map<String, List<TransactionStateTransition>> transitionsByKey;
+
+        public Flush(Map<String, List<TransactionStateTransition>> transitionsByKey) {
+            this.transitionsByKey = transitionsByKey;
+        }
+
+        @Override
+        public Void process(Map.Entry<String, Object> entry) {
+            List<TransactionStateTransition> transitions = transitionsByKey.get(entry.getKey());
+            if (transitions == null || entry.getValue() == null) {
+                return null;
+            }
+            Object value = entry.getValue();
+            TransactionState state = value instanceof TransactionState
+                ? (TransactionState) value
+                : HazelcastTransactionStateService.parseLegacyState(entry.getKey(), (String) value);
+
+            boolean changed = false;
+            for (TransactionStateTransition transition : transitions) {
+                changed |= transition.applyTo(state);
+            }
+            if (changed) {
+                entry.setValue(state);
+            }
+            return null;
+        }
+
+        /**
+         * Flattens the per-key lists into parallel arrays, since Compact has no map field type.
+         */
+        public static class Serializer implements CompactSerializer<Flush> {
+
+            @Override
+            public Flush read(CompactReader reader) {
+                String[] keys = reader.readArrayOfString("keys");
+                int[] counts = reader.readArrayOfInt32("counts");
+                TransactionStateTransition[] transitions =
+                    reader.readArrayOfCompact("transitions", TransactionStateTransition.class);
+
+                Map<String, List<TransactionStateTransition>> transitionsByKey = new HashMap<>(keys.length * 2);
+                int offset = 0;
+                for (int i = 0; i < keys.length; i++) {
+                    List<TransactionStateTransition> forKey = new ArrayList<>(counts[i]);
+                    for (int j = 0; j < counts[i]; j++) {
+                        forKey.add(transitions[offset++]);
+                    }
+                    transitionsByKey.put(keys[i], forKey);
+                }
+                return new Flush(transitionsByKey);
+            }
+
+            @Override
+            public void write(CompactWriter writer, Flush flush) {
+                int size = flush.transitionsByKey.size();
+                String[] keys = new String[size];
+                int[] counts = new int[size];
+                List<TransactionStateTransition> flattened = new ArrayList<>();
+                int i = 0;
+                for (Map.Entry<String, List<TransactionStateTransition>> entry : flush.transitionsByKey.entrySet()) {
+                    keys[i] = entry.getKey();
+                    counts[i] = entry.getValue().size();
+                    flattened.addAll(entry.getValue());
+                    i++;
+                }
+                writer.writeArrayOfString("keys", keys);
+                writer.writeArrayOfInt32("counts", counts);
+                writer.writeArrayOfCompact("transitions", flattened.toArray(new TransactionStateTransition[0]));
+            }
+
+            @Override
+            public String getTypeName() {
+                return "TransactionStateJournalFlush";
+            }
+
+            @Override
+            public Class<Flush> getCompactClass() {
+                return Flush.class;
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.vubank.payment.service;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import com.vubank.payment.model.TransactionState;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Applies one status transition to a transaction state on its partition owner, so the read, the
+ * legality check and the write happen atomically in a single round trip. Returns the status the
+ * entry had before processing (null if the entry does not exist); the entry is only modified when
+ * that status may legally move to the target, see {@link TransactionState.Status#canTransitionTo}.
+ */
+public class TransactionStateTransition implements EntryProcessor<String, Object, TransactionState.Status> {
+
+    private final TransactionState.Status targetStatus;
+    private final String failureReason;
+    private final String cbsId;
+    private final OffsetDateTime approvedAt;
+    private final String coreBankingResponse;
+    // When the transition happened, so journaled transitions flushed later keep accurate timestamps
+    private final OffsetDateTime occurredAt;
+
+    public TransactionStateTransition(TransactionState.Status targetStatus, String failureReason) {
+        this(targetStatus, failureReason, null, null, null);
+    }
+
+    public TransactionStateTransition(TransactionState.Status targetStatus, String failureReason, String cbsId,
+                                      OffsetDateTime approvedAt, String coreBankingResponse) {
+        this(targetStatus, failureReason, cbsId, approvedAt, coreBankingResponse, OffsetDateTime.now());
+    }
+
+    private TransactionStateTransition(TransactionState.Status targetStatus, String failureReason, String cbsId,
+                                       OffsetDateTime approvedAt, String coreBankingResponse,
+                                       OffsetDateTime occurredAt) {
+        this.targetStatus = targetStatus;
+        this.failureReason = failureReason;
+        this.cbsId = cbsId;
+        this.approvedAt = approvedAt;
+        this.coreBankingResponse = coreBankingResponse;
+        this.occurredAt = occurredAt;
+    }
+
+    public static TransactionStateTransition approved(String cbsId, OffsetDateTime approvedAt) {
+        return new TransactionStateTransition(TransactionState.Status.SUCCESS, null, cbsId,
+            approvedAt != null ? approvedAt : OffsetDateTime.now(), null);
+    }
+
+    @Override
+    public TransactionState.Status process(Map.Entry<String, Object> entry) {
+        Object value = entry.getValue();
+        if (value == null) {
+            return null;
+        }
+        TransactionState state = value instanceof TransactionState
+            ? (TransactionState) value
+            : HazelcastTransactionStateService.parseLegacyState(entry.getKey(), (String) value);
+
+        TransactionState.Status previous = state.getStatus();
+        if (applyTo(state)) {
+            entry.setValue(state);
+        }
+        return previous;
+    }
+
+    /**
+     * Applies the transition to a state held locally, e.g. before its first write or when overlaying
+     * journaled transitions on a read. Returns false, leaving the state untouched, if not legal.
+     */
+    public boolean applyTo(TransactionState state) {
+        TransactionState.Status previous = state.getStatus();
+        // A null target only records CoreBanking details without moving the status
+        if (targetStatus != null && (previous == null || !previous.canTransitionTo(targetStatus))) {
+            return false;
+        }
+
+        OffsetDateTime now = occurredAt;
+        state.setUpdatedAt(now);
+        if (failureReason != null) {
+            state.setFailureReason(failureReason);
+        }
+        if (cbsId != null) {
+            state.setCbsId(cbsId);
+        }
+        if (coreBankingResponse != null) {
+            state.setCoreBankingResponse(coreBankingResponse);
+        }
+
+        if (targetStatus != null) {
+            state.setStatus(targetStatus);
+
+            // Set specific timestamps based on status
+            switch (targetStatus) {
+                case VALIDATED:
+                    state.setValidatedAt(now);
+                    break;
+                case IN_PROGRESS:
+                    state.setInProgressAt(now);
+                    break;
+                case SUCCESS:
+                    state.setProcessedAt(now);
+                    state.setApprovedAt(approvedAt != null ? approvedAt : now);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    public TransactionState.Status getTargetStatus() {
+        return targetStatus;
+    }
+
+    /**
+     * Compact serializer so the processor travels to the partition owner without Java serialization.
+     */
+    public static class Serializer implements CompactSerializer<TransactionStateTransition> {
+
+        @Override
+        public TransactionStateTransition read(CompactReader reader) {
+            String targetStatus = reader.readString("targetStatus");
+            return new TransactionStateTransition(
+                targetStatus != null ? TransactionState.Status.valueOf(targetStatus) : null,
+                reader.readString("failureReason"),
+                reader.readString("cbsId"),
+                reader.readTimestampWithTimezone("approvedAt"),
+                reader.readString("coreBankingResponse"),
+                reader.readTimestampWithTimezone("occurredAt"));
+        }
+
+        @Override
+        public void write(CompactWriter writer, TransactionStateTransition transition) {
+            writer.writeString("targetStatus",
+                transition.targetStatus != null ? transition.targetStatus.name() : null);
+            writer.writeString("failureReason", transition.failureReason);
+            writer.writeString("cbsId", transition.cbsId);
+            writer.writeTimestampWithTimezone("approvedAt", transition.approvedAt);
+            writer.writeString("coreBankingResponse", transition.coreBankingResponse);
+            writer.writeTimestampWithTimezone("occurredAt", transition.occurredAt);
+        }
+
+        @Override
+        public String getTypeName() {
+            return "TransactionStateTransition";
+        }
+
+        @Override
+        public Class<TransactionStateTransition> getCompactClass() {
+            return TransactionStateTransition.class;
+        }
+    }
+}
@@ -6,12 +6,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 @Service
@@ -19,19 +30,31 @@ public class XmlParsingService {
 
     private static final Logger logger = LoggerFactory.getLogger(XmlParsingService.class);
 
-    @Value("${validation.xml.max-size:1048576}")
-    private int maxXmlSize;
+    // Precomputed tag table: element local name -> PaymentRequest setter
+    private static final Map<String, BiConsumer<PaymentRequest, String>> FIELD_SETTERS = buildFieldSetters();
 
-    @Value("${validation.comments.max-length:500}")
-    private int maxCommentsLength;
+    // XMLInputFactory is thread-safe once configured, so one instance serves all requests
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
 
-    @Value("${validation.ifsc.pattern:^[A-Z]{4}0[A-Z0-9]{6}$}")
-    private String ifscPattern;
+    // Element wrapping each payment inside a batch file (same shape as a single transfer body)
+    public static final String BATCH_ENTRY_ELEMENT = "PaymentInstruction";
 
+    private final int maxXmlSize;
+    private final long maxBatchSize;
+    private final int maxBatchItems;
+    private final int maxCommentsLength;
     private final Pattern ifscRegex;
 
-    public XmlParsingService(@Value("${validation.ifsc.pattern:^[A-Z]{4}0[A-Z0-9]{6}$}") String pattern) {
+    public XmlParsingService(@Value("${validation.ifsc.pattern:^[A-Z]{4}0[A-Z0-9]{6}$}") String pattern,
+                             @Value("${validation.xml.max-size:1048576}") int maxXmlSize,
+                             @Value("${validation.batch.max-size:104857600}") long maxBatchSize,
+                             @Value("${validation.batch.max-items:100000}") int maxBatchItems,
+                             @Value("${validation.comments.max-length:500}") int maxCommentsLength) {
         this.ifscRegex = Pattern.compile(pattern);
+        this.maxXmlSize = maxXmlSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchItems = maxBatchItems;
+        this.maxCommentsLength = maxCommentsLength;
     }
 
     public PaymentRequest parseXmlToPaymentRequest(String xmlContent, String xRequestId, String xApiClient) {
@@ -39,41 +62,51 @@ public class XmlParsingService {
             throw new IllegalArgumentException("XML content cannot be empty");
         }
 
-        if (xmlContent.length() > maxXmlSize) {
+        // The limit is in bytes, as on the stream path; multi-byte characters count in full
+        byte[] xmlBytes = xmlContent.getBytes(StandardCharsets.UTF_8);
+        if (xmlBytes.length > maxXmlSize) {
             throw new IllegalArgumentException("XML content exceeds maximum size limit");
         }
 
+        return parseXmlToPaymentRequest(new ByteArrayInputStream(xmlBytes), xRequestId, xApiClient);
+    }
+
+    /**
+     * Single-pass parse straight off the request body. Each element is looked up once in
+     * FIELD_SETTERS, so the cost is linear in the payload size regardless of the number of fields,
+     * and the size limit is enforced while the stream is read rather than after buffering it.
+     */
+    public PaymentRequest parseXmlToPaymentRequest(InputStream xmlStream, String xRequestId, String xApiClient) {
+        if (xmlStream == null) {
+            throw new IllegalArgumentException("XML content cannot be empty");
+        }
+
+        SizeLimitedInputStream limitedStream = new SizeLimitedInputStream(xmlStream, maxXmlSize);
+        XMLStreamReader reader = null;
         try {
-            // For demo purposes, create a simple parser
-            // In production, use proper PACS XML schema validation
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(limitedStream);
+
             PaymentRequest request = new PaymentRequest();
-            
-            // Extract values using simple string parsing (replace with proper XML parsing)
-            request.setPayeeName(extractValue(xmlContent, "PayeeName"));
-            request.setIfscCode(extractValue(xmlContent, "IFSCCode"));
-            request.setPaymentType(extractValue(xmlContent, "PaymentType"));
-            request.setCustomerName(extractValue(xmlContent, "CustomerName"));
-            request.setFromAccountNo(extractValue(xmlContent, "FromAccountNo"));
-            request.setToAccountNo(extractValue(xmlContent, "ToAccountNo"));
-            request.setBranchName(extractValue(xmlContent, "BranchName"));
-            request.setComments(extractValue(xmlContent, "Comments"));
-            
-            // Parse amount
-            String amountStr = extractValue(xmlContent, "Amount");
-            if (amountStr != null && !amountStr.isEmpty()) {
-                request.setAmount(new BigDecimal(amountStr));
-            }
-            
-            // Parse datetime
-            String dateTimeStr = extractValue(xmlContent, "DateTime");
-            if (dateTimeStr != null && !dateTimeStr.isEmpty()) {
-                try {
-                    request.setInitiatedAt(OffsetDateTime.parse(dateTimeStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-                } catch (Exception e) {
-                    request.setInitiatedAt(OffsetDateTime.now());
-                    logger.warn("Could not parse datetime from XML, using current time: {}", e.getMessage());
+            boolean sawElement = false;
+
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                sawElement = true;
+
+                BiConsumer<PaymentRequest, String> setter = FIELD_SETTERS.get(reader.getLocalName());
+                if (setter != null) {
+                    // getElementText() leaves the reader on the matching END_ELEMENT
+                    setter.accept(request, reader.getElementText().trim());
                 }
-            } else {
+            }
+
+            if (!sawElement) {
+                throw new IllegalArgumentException("XML content cannot be empty");
+            }
+
+            if (request.getInitiatedAt() == null) {
                 request.setInitiatedAt(OffsetDateTime.now());
             }
 
@@ -88,31 +121,143 @@ public class XmlParsingService {
             return request;
 
         } catch (Exception e) {
+            // The StAX reader reports stream failures as a generic parse error, so ask the stream
+            if (limitedStream.isLimitExceeded()) {
+                logger.warn("XML content for xRequestId: {} exceeds {} bytes", xRequestId, maxXmlSize);
+                throw new IllegalArgumentException("XML content exceeds maximum size limit");
+            }
             logger.error("Failed to parse XML content for xRequestId: {}", xRequestId, e);
             throw new IllegalArgumentException("Invalid XML content: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    logger.debug("Failed to close XML reader for xRequestId: {}", xRequestId, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams a batch file - any root element wrapping repeated PaymentInstruction elements - and hands
+     * each entry to the consumer as soon as its closing tag is read, so only one entry is held in memory.
+     * Bad field values are reported on the entry itself; malformed XML aborts the whole stream.
+     * Entries are not validated here, see {@link #validatePaymentRequest(PaymentRequest)}.
+     *
+     * @return the number of entries read
+     */
+    public int parseBatch(InputStream xmlStream, String xRequestId, String xApiClient, Consumer<BatchEntry> consumer) {
+        if (xmlStream == null) {
+            throw new IllegalArgumentException("Batch content cannot be empty");
+        }
+
+        SizeLimitedInputStream limitedStream = new SizeLimitedInputStream(xmlStream, maxBatchSize);
+        XMLStreamReader reader = null;
+        int count = 0;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(limitedStream);
+
+            PaymentRequest current = null;
+            String error = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (BATCH_ENTRY_ELEMENT.equals(name)) {
+                        current = new PaymentRequest();
+                        error = null;
+                        continue;
+                    }
+                    BiConsumer<PaymentRequest, String> setter = current != null ? FIELD_SETTERS.get(name) : null;
+                    if (setter != null) {
+                        String value = reader.getElementText().trim();
+                        if (error == null) {
+                            try {
+                                setter.accept(current, value);
+                            } catch (RuntimeException e) {
+                                error = "Invalid " + name + " value";
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && current != null
+                        && BATCH_ENTRY_ELEMENT.equals(reader.getLocalName())) {
+                    if (count >= maxBatchItems) {
+                        throw new IllegalArgumentException("Batch exceeds maximum of " + maxBatchItems + " payments");
+                    }
+                    if (current.getInitiatedAt() == null) {
+                        current.setInitiatedAt(OffsetDateTime.now());
+                    }
+                    current.setXRequestId(xRequestId);
+                    current.setXApiClient(xApiClient);
+
+                    consumer.accept(new BatchEntry(count++, current, error));
+                    current = null;
+                }
+            }
+
+            logger.info("Streamed {} payment entries from batch for xRequestId: {}", count, xRequestId);
+            return count;
+
+        } catch (XMLStreamException e) {
+            if (limitedStream.isLimitExceeded()) {
+                logger.warn("Batch content for xRequestId: {} exceeds {} bytes", xRequestId, maxBatchSize);
+                throw new IllegalArgumentException("Batch content exceeds maximum size limit after " + count + " entries");
+            }
+            logger.error("Failed to parse batch content for xRequestId: {} after {} entries", xRequestId, count, e);
+            throw new IllegalArgumentException("Invalid batch XML after " + count + " entries: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    logger.debug("Failed to close XML reader for xRequestId: {}", xRequestId, e);
+                }
+            }
         }
     }
 
-    private String extractValue(String xmlContent, String tagName) {
-        String startTag = "<" + tagName + ">";
-        String endTag = "</" + tagName + ">";
-        
-        int startIndex = xmlContent.indexOf(startTag);
-        if (startIndex == -1) {
-            return null;
-        }
-        
-        int valueStart = startIndex + startTag.length();
-        int endIndex = xmlContent.indexOf(endTag, valueStart);
-        
-        if (endIndex == -1) {
-            return null;
-        }
-        
-        return xmlContent.substring(valueStart, endIndex).trim();
+    private static Map<String, BiConsumer<PaymentRequest, String>> buildFieldSetters() {
+        Map<String, BiConsumer<PaymentRequest, String>> setters = new HashMap<>();
+        setters.put("PayeeName", PaymentRequest::setPayeeName);
+        setters.put("IFSCCode", PaymentRequest::setIfscCode);
+        setters.put("PaymentType", PaymentRequest::setPaymentType);
+        setters.put("CustomerName", PaymentRequest::setCustomerName);
+        setters.put("FromAccountNo", PaymentRequest::setFromAccountNo);
+        setters.put("ToAccountNo", PaymentRequest::setToAccountNo);
+        setters.put("BranchName", PaymentRequest::setBranchName);
+        setters.put("Comments", PaymentRequest::setComments);
+        setters.put("Amount", (request, value) -> {
+            if (!value.isEmpty()) {
+                request.setAmount(new BigDecimal(value));
+            }
+        });
+        setters.put("DateTime", (request, value) -> {
+            if (value.isEmpty()) {
+                return;
+            }
+            try {
+                request.setInitiatedAt(OffsetDateTime.parse(value, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            } catch (Exception e) {
+                request.setInitiatedAt(OffsetDateTime.now());
+                logger.warn("Could not parse datetime from XML, using current time: {}", e.getMessage());
+            }
+        });
+        return Collections.unmodifiableMap(setters);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Payment instructions never carry DTDs; refusing them also shuts out XXE
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
     }
 
-    private void validatePaymentRequest(PaymentRequest request) {
+    public void validatePaymentRequest(PaymentRequest request) {
         if (request.getPayeeName() == null || request.getPayeeName().trim().isEmpty()) {
             throw new IllegalArgumentException("Payee name is required");
         }
@@ -145,4 +290,76 @@ public class XmlParsingService {
         logger.debug("Payment request validation passed for amount: {} from account: {}", 
                     request.getAmount(), request.getFromAccountNo());
     }
+
+    /**
+     * One PaymentInstruction read from a batch file, in file order. {@code error} is set when a
+     * field could not be converted (e.g. a non-numeric Amount).
+     */
+    public static class BatchEntry {
+        private final int index;
+        private final PaymentRequest request;
+        private final String error;
+
+        public BatchEntry(int index, PaymentRequest request, String error) {
+            this.index = index;
+            this.request = request;
+            this.error = error;
+        }
+
+        public int getIndex() { return index; }
+        public PaymentRequest getRequest() { return request; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * Counts bytes as the parser pulls them and fails once the configured limit is crossed,
+     * so oversized bodies are rejected without ever being held in memory.
+     */
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+        private boolean limitExceeded;
+
+        SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                checkLimit(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                checkLimit(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            checkLimit(skipped);
+            return skipped;
+        }
+
+        boolean isLimitExceeded() {
+            return limitExceeded;
+        }
+
+        private void checkLimit(long bytesRead) throws IOException {
+            count += bytesRead;
+            if (count > limit) {
+                limitExceeded = true;
+                throw new IOException("XML content exceeds maximum size of " + limit + " bytes");
+            }
+        }
+    }
 }
\ No newline at end of file
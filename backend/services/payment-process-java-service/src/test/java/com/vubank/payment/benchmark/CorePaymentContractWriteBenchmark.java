@@ -0,0 +1,130 @@
+package com.vubank.payment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.vubank.payment.model.CorePaymentRequest;
+import com.vubank.payment.model.PaymentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing the payment sent to CoreBanking: the five nested HashMaps it used to be
+ * against the {@link CorePaymentRequest} record written by an ObjectWriter resolved once, each with
+ * and without Blackbird. The receiving side is CorePaymentContractReadBenchmark in corebanking.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CorePaymentContractWriteBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectWriter mapWriter;
+    private ObjectWriter recordWriter;
+    private PaymentRequest request;
+    private String txnRef;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        mapWriter = objectMapper.writer();
+        recordWriter = objectMapper.writerFor(CorePaymentRequest.class);
+
+        request = new PaymentRequest();
+        request.setPayeeName("John Doe");
+        request.setIfscCode("SBIN0000123");
+        request.setPaymentType("NEFT");
+        request.setCustomerName("Jane Roe");
+        request.setFromAccountNo("ACC001");
+        request.setToAccountNo("ACC002");
+        request.setBranchName("Mumbai Main");
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setInitiatedAt(OffsetDateTime.now());
+        request.setComments("Invoice settlement");
+        request.setXRequestId(UUID.randomUUID().toString());
+        request.setXApiClient("web-portal");
+        txnRef = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public byte[] hashMap() throws JsonProcessingException {
+        return mapWriter.writeValueAsBytes(createCanonicalJson(txnRef, request));
+    }
+
+    @Benchmark
+    public byte[] record() throws JsonProcessingException {
+        return recordWriter.writeValueAsBytes(new CorePaymentRequest(
+            CorePaymentRequest.CURRENT_VERSION,
+            txnRef,
+            request.getPaymentType(),
+            request.getAmount(),
+            "INR",
+            new CorePaymentRequest.Payer(request.getCustomerName(), request.getFromAccountNo(), "SAVINGS"),
+            new CorePaymentRequest.Payee(request.getPayeeName(), request.getToAccountNo(), request.getIfscCode()),
+            new CorePaymentRequest.Meta(request.getBranchName(), request.getInitiatedAt(), request.getComments()),
+            new CorePaymentRequest.HeadersEcho(request.getXRequestId(), request.getXApiClient())));
+    }
+
+    // The payload CoreBankingService built before the record existed
+    private static Map<String, Object> createCanonicalJson(String txnRef, PaymentRequest request) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("txnRef", txnRef);
+        payload.put("paymentType", request.getPaymentType());
+        payload.put("amount", request.getAmount());
+        payload.put("currency", "INR");
+
+        Map<String, Object> payer = new HashMap<>();
+        payer.put("name", request.getCustomerName());
+        payer.put("accountNo", request.getFromAccountNo());
+        payer.put("accountType", "SAVINGS");
+        payload.put("payer", payer);
+
+        Map<String, Object> payee = new HashMap<>();
+        payee.put("name", request.getPayeeName());
+        payee.put("accountNo", request.getToAccountNo());
+        payee.put("ifsc", request.getIfscCode());
+        payload.put("payee", payee);
+
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("branchName", request.getBranchName());
+        meta.put("initiatedAt", request.getInitiatedAt().toString());
+        meta.put("comments", request.getComments());
+        payload.put("meta", meta);
+
+        Map<String, Object> headersEcho = new HashMap<>();
+        headersEcho.put("xRequestId", request.getXRequestId());
+        headersEcho.put("xApiClient", request.getXApiClient());
+        payload.put("headers", headersEcho);
+
+        return payload;
+    }
+}
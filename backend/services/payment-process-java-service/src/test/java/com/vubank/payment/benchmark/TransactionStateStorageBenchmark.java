@@ -0,0 +1,129 @@
+package com.vubank.payment.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.vubank.payment.config.TransactionStateSerializer;
+import com.vubank.payment.model.TransactionState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction states in an embedded Hazelcast member: Jackson JSON strings in an
+ * IMap&lt;String,String&gt;, as they were stored before, against TransactionState values written by
+ * {@link TransactionStateSerializer}. Each operation is a set and a get of one IN_PROGRESS state,
+ * including the JSON encode and parse on the string side. Owned bytes per entry are printed at the
+ * end of the trial from the maps' local stats.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionStateStorageBenchmark {
+
+    private static final int ENTRIES = 50_000;
+
+    private HazelcastInstance hazelcast;
+    private IMap<String, String> jsonStates;
+    private IMap<String, TransactionState> compactStates;
+    private ObjectMapper objectMapper;
+    private String[] txnRefs;
+    private TransactionState[] states;
+    private int next;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        Config config = new Config();
+        config.setClusterName("jmh-" + UUID.randomUUID());
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(false);
+        join.getAutoDetectionConfig().setEnabled(false);
+        config.getSerializationConfig().getCompactSerializationConfig()
+            .addSerializer(new TransactionStateSerializer());
+        hazelcast = Hazelcast.newHazelcastInstance(config);
+
+        jsonStates = hazelcast.getMap("json-states");
+        compactStates = hazelcast.getMap("compact-states");
+        objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+
+        txnRefs = new String[ENTRIES];
+        states = new TransactionState[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            txnRefs[i] = UUID.randomUUID().toString();
+            states[i] = inProgressState(txnRefs[i]);
+            jsonStates.set(txnRefs[i], objectMapper.writeValueAsString(states[i]));
+            compactStates.set(txnRefs[i], states[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nOwned bytes/entry: JSON %d, Compact %d%n",
+            jsonStates.getLocalMapStats().getOwnedEntryMemoryCost() / jsonStates.size(),
+            compactStates.getLocalMapStats().getOwnedEntryMemoryCost() / compactStates.size());
+        hazelcast.shutdown();
+    }
+
+    @Benchmark
+    public TransactionState json() throws JsonProcessingException {
+        int i = nextIndex();
+        jsonStates.set(txnRefs[i], objectMapper.writeValueAsString(states[i]));
+        return objectMapper.readValue(jsonStates.get(txnRefs[i]), TransactionState.class);
+    }
+
+    @Benchmark
+    public TransactionState compact() {
+        int i = nextIndex();
+        compactStates.set(txnRefs[i], states[i]);
+        return compactStates.get(txnRefs[i]);
+    }
+
+    private int nextIndex() {
+        next = next + 1 < ENTRIES ? next + 1 : 0;
+        return next;
+    }
+
+    private static TransactionState inProgressState(String txnRef) {
+        OffsetDateTime now = OffsetDateTime.now();
+        TransactionState state = new TransactionState();
+        state.setTxnRef(txnRef);
+        state.setStatus(TransactionState.Status.IN_PROGRESS);
+        state.setPaymentType("NEFT");
+        state.setAmount(new BigDecimal("1000.00"));
+        state.setPayerAccount("ACC001");
+        state.setPayeeAccount("ACC002");
+        state.setPayeeName("John Doe");
+        state.setIfsc("SBIN0000123");
+        state.setComments("Invoice settlement");
+        state.setCreatedAt(now);
+        state.setUpdatedAt(now);
+        state.setValidatedAt(now);
+        state.setInProgressAt(now);
+        state.setXRequestId(UUID.randomUUID().toString());
+        state.setXApiClient("web-portal");
+        return state;
+    }
+}
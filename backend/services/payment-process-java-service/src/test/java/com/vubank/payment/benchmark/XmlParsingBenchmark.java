@@ -0,0 +1,232 @@
+package com.vubank.payment.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.vubank.payment.model.PaymentRequest;
+import com.vubank.payment.service.XmlParsingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Transfer body parsing: the StAX pass of {@link XmlParsingService} against the indexOf/substring
+ * parser it replaced, at 1 KB, 64 KB and 1 MB. The payment fields follow a padding element, as
+ * the fields of a PACS message follow its header, so both parsers read the whole body.
+ *
+ * The substring parser took the body as a String, which Spring decoded from the request bytes,
+ * so its benchmark decodes the bytes too; the StAX parser reads them as they arrive. Run with
+ * -prof gc to compare allocation per parse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlParsingBenchmark {
+
+    private static final String IFSC_PATTERN = "^[A-Z]{4}0[A-Z0-9]{6}$";
+    private static final int MAX_XML_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_COMMENTS_LENGTH = 500;
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadBytes;
+
+    private XmlParsingService staxParser;
+    private SubstringXmlParsingService substringParser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        // Both parsers log every request at INFO; keep the console out of the measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+            .setLevel(Level.WARN);
+
+        staxParser = new XmlParsingService(IFSC_PATTERN, MAX_XML_SIZE, 100L * 1024 * 1024, 100_000, MAX_COMMENTS_LENGTH);
+        substringParser = new SubstringXmlParsingService(IFSC_PATTERN, MAX_XML_SIZE, MAX_COMMENTS_LENGTH);
+        body = transferBody(payloadBytes).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PaymentRequest stax() {
+        return staxParser.parseXmlToPaymentRequest(new ByteArrayInputStream(body), "bench", "bench");
+    }
+
+    @Benchmark
+    public PaymentRequest substring() {
+        return substringParser.parseXmlToPaymentRequest(new String(body, StandardCharsets.UTF_8), "bench", "bench");
+    }
+
+    static String transferBody(int size) {
+        String fields = """
+                <PayeeName>John Doe</PayeeName>
+                <IFSCCode>SBIN0000123</IFSCCode>
+                <PaymentType>NEFT</PaymentType>
+                <CustomerName>Jane Roe</CustomerName>
+                <FromAccountNo>ACC001</FromAccountNo>
+                <ToAccountNo>ACC002</ToAccountNo>
+                <BranchName>Mumbai Main</BranchName>
+                <Amount>1000.00</Amount>
+                <DateTime>2024-01-01T10:00:00+05:30</DateTime>
+                <Comments>Invoice settlement</Comments>
+            </PaymentRequest>
+            """;
+        String line = "<Line>Invoice 000123 settled in full against order 4567</Line>\n";
+
+        StringBuilder xml = new StringBuilder(size + line.length())
+            .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<PaymentRequest>\n<Remittance>\n");
+        int padTo = size - fields.length() - "</Remittance>\n".length();
+        while (xml.length() + line.length() <= padTo) {
+            xml.append(line);
+        }
+        return xml.append("</Remittance>\n").append(fields).toString();
+    }
+
+    /**
+     * XmlParsingService as it was before the StAX pass (baseline commit), unchanged apart from taking
+     * its settings through the constructor instead of @Value fields.
+     */
+    static class SubstringXmlParsingService {
+
+        private static final Logger logger = LoggerFactory.getLogger(SubstringXmlParsingService.class);
+
+        private final int maxXmlSize;
+        private final int maxCommentsLength;
+        private final Pattern ifscRegex;
+
+        SubstringXmlParsingService(String pattern, int maxXmlSize, int maxCommentsLength) {
+            this.ifscRegex = Pattern.compile(pattern);
+            this.maxXmlSize = maxXmlSize;
+            this.maxCommentsLength = maxCommentsLength;
+        }
+
+        public PaymentRequest parseXmlToPaymentRequest(String xmlContent, String xRequestId, String xApiClient) {
+            if (xmlContent == null || xmlContent.trim().isEmpty()) {
+                throw new IllegalArgumentException("XML content cannot be empty");
+            }
+
+            if (xmlContent.length() > maxXmlSize) {
+                throw new IllegalArgumentException("XML content exceeds maximum size limit");
+            }
+
+            try {
+                // For demo purposes, create a simple parser
+                // In production, use proper PACS XML schema validation
+                PaymentRequest request = new PaymentRequest();
+
+                // Extract values using simple string parsing (replace with proper XML parsing)
+                request.setPayeeName(extractValue(xmlContent, "PayeeName"));
+                request.setIfscCode(extractValue(xmlContent, "IFSCCode"));
+                request.setPaymentType(extractValue(xmlContent, "PaymentType"));
+                request.setCustomerName(extractValue(xmlContent, "CustomerName"));
+                request.setFromAccountNo(extractValue(xmlContent, "FromAccountNo"));
+                request.setToAccountNo(extractValue(xmlContent, "ToAccountNo"));
+                request.setBranchName(extractValue(xmlContent, "BranchName"));
+                request.setComments(extractValue(xmlContent, "Comments"));
+
+                // Parse amount
+                String amountStr = extractValue(xmlContent, "Amount");
+                if (amountStr != null && !amountStr.isEmpty()) {
+                    request.setAmount(new BigDecimal(amountStr));
+                }
+
+                // Parse datetime
+                String dateTimeStr = extractValue(xmlContent, "DateTime");
+                if (dateTimeStr != null && !dateTimeStr.isEmpty()) {
+                    try {
+                        request.setInitiatedAt(OffsetDateTime.parse(dateTimeStr, DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+                    } catch (Exception e) {
+                        request.setInitiatedAt(OffsetDateTime.now());
+                        logger.warn("Could not parse datetime from XML, using current time: {}", e.getMessage());
+                    }
+                } else {
+                    request.setInitiatedAt(OffsetDateTime.now());
+                }
+
+                // Set request metadata
+                request.setXRequestId(xRequestId);
+                request.setXApiClient(xApiClient);
+
+                // Validate the parsed request
+                validatePaymentRequest(request);
+
+                logger.info("Successfully parsed XML to PaymentRequest for xRequestId: {}", xRequestId);
+                return request;
+
+            } catch (Exception e) {
+                logger.error("Failed to parse XML content for xRequestId: {}", xRequestId, e);
+                throw new IllegalArgumentException("Invalid XML content: " + e.getMessage(), e);
+            }
+        }
+
+        private String extractValue(String xmlContent, String tagName) {
+            String startTag = "<" + tagName + ">";
+            String endTag = "</" + tagName + ">";
+
+            int startIndex = xmlContent.indexOf(startTag);
+            if (startIndex == -1) {
+                return null;
+            }
+
+            int valueStart = startIndex + startTag.length();
+            int endIndex = xmlContent.indexOf(endTag, valueStart);
+
+            if (endIndex == -1) {
+                return null;
+            }
+
+            return xmlContent.substring(valueStart, endIndex).trim();
+        }
+
+        private void validatePaymentRequest(PaymentRequest request) {
+            if (request.getPayeeName() == null || request.getPayeeName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Payee name is required");
+            }
+
+            if (request.getIfscCode() == null || !ifscRegex.matcher(request.getIfscCode()).matches()) {
+                throw new IllegalArgumentException("Valid IFSC code is required");
+            }
+
+            if (request.getPaymentType() == null ||
+                !request.getPaymentType().matches("^(NEFT|IMPS|UPI)$")) {
+                throw new IllegalArgumentException("Payment type must be NEFT, IMPS, or UPI");
+            }
+
+            if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+
+            if (request.getFromAccountNo() == null || request.getFromAccountNo().trim().isEmpty()) {
+                throw new IllegalArgumentException("From account number is required");
+            }
+
+            if (request.getToAccountNo() == null || request.getToAccountNo().trim().isEmpty()) {
+                throw new IllegalArgumentException("To account number is required");
+            }
+
+            if (request.getComments() != null && request.getComments().length() > maxCommentsLength) {
+                throw new IllegalArgumentException("Comments exceed maximum length of " + maxCommentsLength + " characters");
+            }
+
+            logger.debug("Payment request validation passed for amount: {} from account: {}",
+                        request.getAmount(), request.getFromAccountNo());
+        }
+    }
+}
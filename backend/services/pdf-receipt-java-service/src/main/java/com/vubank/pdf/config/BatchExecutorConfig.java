@@ -0,0 +1,39 @@
+package com.vubank.pdf.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Worker pool for batch receipt rendering. Rendering is CPU-bound, so the pool defaults to one
+ * thread per core and is shared by all batch requests. When its queue is full the submitting batch
+ * renders the receipt itself, which slows that batch's reading of its input instead of queueing
+ * more work.
+ */
+@Configuration
+public class BatchExecutorConfig {
+
+    @Value("${pdf.batch.workers:0}")
+    private int workers;
+
+    @Value("${pdf.batch.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Bean(name = "receiptRenderingExecutor")
+    public ThreadPoolTaskExecutor receiptRenderingExecutor() {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("receipt-rendering-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,52 +1,160 @@
 package com.vubank.pdf.controller;
 
+import com.itextpdf.text.DocumentException;
 import com.vubank.pdf.model.TransactionReceipt;
+import com.vubank.pdf.service.PdfBufferPool;
 import com.vubank.pdf.service.PdfGeneratorService;
+import com.vubank.pdf.service.ReceiptBatchService;
+import com.vubank.pdf.service.ReceiptCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @RestController
 @RequestMapping("/api/pdf")
 @CrossOrigin(origins = "*", 
-    allowedHeaders = {"Origin", "X-Requested-With", "Content-Type", "Accept", "Authorization", "X-Api-Client", "X-Request-ID", "traceparent", "tracestate"}, 
+    allowedHeaders = {"Origin", "X-Requested-With", "Content-Type", "Accept", "Authorization", "X-Api-Client", "X-Request-ID", "traceparent", "tracestate", "If-None-Match"}, 
     exposedHeaders = {"*"})
 public class PdfReceiptController {
 
     @Autowired
     private PdfGeneratorService pdfGeneratorService;
 
+    @Autowired
+    private PdfBufferPool pdfBufferPool;
+
+    @Autowired
+    private ReceiptCache receiptCache;
+
+    @Autowired
+    private ReceiptBatchService receiptBatchService;
+
+    @Value("${pdf.response.content-length:false}")
+    private boolean sendContentLength;
+
     @PostMapping("/generate-receipt")
-    public ResponseEntity<byte[]> generateReceipt(@RequestBody TransactionReceipt receipt) {
+    public ResponseEntity<StreamingResponseBody> generateReceipt(@RequestBody TransactionReceipt receipt,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            // Generate PDF
-            byte[] pdfBytes = pdfGeneratorService.generateReceiptPdf(receipt);
-            
-            // Create filename with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            // The same receipt always gets the same filename, so repeated downloads are identical
+            LocalDateTime issuedAt = receipt.getTimestamp() != null ? receipt.getTimestamp() : LocalDateTime.now();
+            String timestamp = issuedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String filename = String.format("VuBank_Receipt_%s_%s.pdf", receipt.getTransactionId(), timestamp);
             
             // Set response headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(pdfBytes.length);
+
+            // Receipts with the same fields render to the same document, so the field hash is the ETag
+            String key = receiptCache.keyOf(receipt);
+            headers.setETag("W/\"" + key + "\"");
+            if (etagMatches(ifNoneMatch, key)) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+
+            if (receiptCache.isCacheable(receipt)) {
+                ReceiptCache.CachedPdf cached = receiptCache.get(key);
+                if (cached == null) {
+                    cached = receiptCache.put(key, pdfGeneratorService.generateReceiptPdf(receipt));
+                }
+                headers.setContentLength(cached.size());
+                return new ResponseEntity<>(cached::writeTo, headers, HttpStatus.OK);
+            }
+
+            if (!sendContentLength) {
+                // iText writes straight into the response stream, which is sent chunked
+                return new ResponseEntity<>(out -> writeReceipt(receipt, out), headers, HttpStatus.OK);
+            }
+
+            // Render into a pooled buffer first so the length is known, then write that buffer out
+            PdfBufferPool.PdfBuffer buffer = pdfBufferPool.acquire();
+            try {
+                pdfGeneratorService.writeReceiptPdf(receipt, buffer);
+            } catch (Exception e) {
+                pdfBufferPool.release(buffer);
+                throw e;
+            }
+            headers.setContentLength(buffer.size());
             
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(out -> {
+                try {
+                    buffer.writeTo(out);
+                } finally {
+                    pdfBufferPool.release(buffer);
+                }
+            }, headers, HttpStatus.OK);
             
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @PostMapping(value = "/generate-receipts", consumes = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> generateReceipts(InputStream body,
+            @RequestParam(value = "format", defaultValue = "zip") String format) {
+        ReceiptBatchService.Format batchFormat;
+        try {
+            batchFormat = ReceiptBatchService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        HttpHeaders headers = new HttpHeaders();
+        if (batchFormat == ReceiptBatchService.Format.ZIP) {
+            headers.setContentType(MediaType.parseMediaType("application/zip"));
+            headers.setContentDispositionFormData("attachment", String.format("VuBank_Receipts_%s.zip", timestamp));
+        } else {
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", String.format("VuBank_Receipts_%s.pdf", timestamp));
+        }
+
+        // Receipts are read, rendered and written while the response streams
+        return new ResponseEntity<>(out -> receiptBatchService.writeBatch(body, out, batchFormat), headers, HttpStatus.OK);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("PDF Receipt Service is running");
     }
+
+    private static boolean etagMatches(String ifNoneMatch, String key) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        // Weak comparison: W/ prefixes are ignored
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("\"" + key + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeReceipt(TransactionReceipt receipt, OutputStream out) throws IOException {
+        try {
+            pdfGeneratorService.writeReceiptPdf(receipt, out);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render receipt " + receipt.getTransactionId(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.vubank.pdf.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reusable output buffers for PDFs that have to be complete before the response starts, i.e. when a
+ * Content-Length is sent. A buffer is written to the response directly (never copied out with
+ * toByteArray) and returned afterwards; at most {@code pdf.response.buffer-pool.size} idle buffers
+ * are kept, and one that grew past {@code pdf.response.buffer-pool.max-retained-bytes} is dropped
+ * so a single large document cannot pin memory.
+ */
+@Component
+public class PdfBufferPool {
+
+    private final BlockingQueue<PdfBuffer> idle;
+    private final int initialCapacity;
+    private final int maxRetainedBytes;
+
+    public PdfBufferPool(@Value("${pdf.response.buffer-pool.size:32}") int poolSize,
+                         @Value("${pdf.response.buffer-pool.initial-capacity:8192}") int initialCapacity,
+                         @Value("${pdf.response.buffer-pool.max-retained-bytes:262144}") int maxRetainedBytes) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(poolSize, 1));
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    public PdfBuffer acquire() {
+        PdfBuffer buffer = idle.poll();
+        return buffer != null ? buffer : new PdfBuffer(initialCapacity);
+    }
+
+    public void release(PdfBuffer buffer) {
+        if (buffer.capacity() <= maxRetainedBytes) {
+            buffer.reset();
+            idle.offer(buffer);
+        }
+    }
+
+    public static class PdfBuffer extends ByteArrayOutputStream {
+
+        PdfBuffer(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
@@ -2,159 +2,177 @@ package com.vubank.pdf.service;
 
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
-import com.itextpdf.text.pdf.draw.LineSeparator;
 import com.vubank.pdf.model.TransactionReceipt;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 
+/**
+ * Renders receipts from a template. Everything that is the same on every receipt (branding, labels,
+ * separators, the amount highlight and the footer) is laid out once at startup into a one-page PDF;
+ * each receipt stamps its ten values onto a copy of that page at fixed positions. The positions are
+ * those of the previous Document/PdfPTable layout, so receipts look the same as before.
+ */
 @Service
 public class PdfGeneratorService {
 
-    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.DARK_GRAY);
-    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14, BaseColor.BLACK);
-    private static final Font NORMAL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12, BaseColor.BLACK);
-    private static final Font SMALL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.GRAY);
+    private static final BaseFont REGULAR = createFont(BaseFont.HELVETICA);
+    private static final BaseFont BOLD = createFont(BaseFont.HELVETICA_BOLD);
+
+    private static final Font TITLE_FONT = new Font(BOLD, 18, Font.NORMAL, BaseColor.DARK_GRAY);
+    private static final Font HEADER_FONT = new Font(BOLD, 14, Font.NORMAL, BaseColor.BLACK);
+    private static final Font NORMAL_FONT = new Font(REGULAR, 12, Font.NORMAL, BaseColor.BLACK);
+    private static final Font SMALL_FONT = new Font(REGULAR, 10, Font.NORMAL, BaseColor.GRAY);
+    private static final BaseColor AMOUNT_BACKGROUND = new BaseColor(240, 248, 255); // Light blue background
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+
+    // A4 with 50pt margins; rows of the details table are 28pt apart, with 24pt spacer rows between groups
+    private static final float CENTER_X = 297.5f;
+    private static final float LEFT = 50f;
+    private static final float RIGHT = 545f;
+    private static final float LABEL_X = 58f;
+    private static final float VALUE_X = 256f;
+    private static final float VALUE_WIDTH = RIGHT - 8f - VALUE_X;
+
+    private static final float TRANSACTION_ID_Y = 607f;
+    private static final float TIMESTAMP_Y = 579f;
+    private static final float STATUS_Y = 551f;
+    private static final float CUSTOMER_NAME_Y = 505f;
+    private static final float CUSTOMER_ID_Y = 477f;
+    private static final float FROM_ACCOUNT_Y = 431f;
+    private static final float TO_ACCOUNT_Y = 403f;
+    private static final float PAYEE_NAME_Y = 375f;
+    private static final float PAYMENT_MODE_Y = 347f;
+    private static final float AMOUNT_Y = 299f;
+
+    private final byte[] template;
+
+    public PdfGeneratorService() throws DocumentException {
+        this.template = renderTemplate();
+    }
 
     public byte[] generateReceiptPdf(TransactionReceipt receipt) throws DocumentException, IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(template.length + 2048);
+        writeReceiptPdf(receipt, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the receipt straight to the given stream, which is left open.
+     */
+    public void writeReceiptPdf(TransactionReceipt receipt, OutputStream out) throws DocumentException, IOException {
+        PdfReader reader = new PdfReader(template);
+        try {
+            PdfStamper stamper = new PdfStamper(reader, out);
+            stamper.getWriter().setCloseStream(false);
+            PdfContentByte canvas = stamper.getOverContent(1);
+
+            addValue(canvas, receipt.getTransactionId(), TRANSACTION_ID_Y);
+            addValue(canvas, receipt.getTimestamp() != null ? receipt.getTimestamp().format(TIMESTAMP_FORMAT) : null, TIMESTAMP_Y);
+            addValue(canvas, receipt.getStatus(), STATUS_Y);
+            addValue(canvas, receipt.getCustomerName(), CUSTOMER_NAME_Y);
+            addValue(canvas, receipt.getCustomerId(), CUSTOMER_ID_Y);
+            addValue(canvas, receipt.getFromAccount(), FROM_ACCOUNT_Y);
+            addValue(canvas, receipt.getToAccount(), TO_ACCOUNT_Y);
+            addValue(canvas, receipt.getPayeeName(), PAYEE_NAME_Y);
+            addValue(canvas, receipt.getPaymentMode(), PAYMENT_MODE_Y);
+            addText(canvas, "₹" + String.format("%.2f", receipt.getAmount()), BOLD, 14, VALUE_X, AMOUNT_Y);
+
+            stamper.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void addValue(PdfContentByte canvas, String value, float y) {
+        addText(canvas, value != null ? value : "N/A", REGULAR, 12, VALUE_X, y);
+    }
+
+    private void addText(PdfContentByte canvas, String text, BaseFont font, float size, float x, float y) {
+        // Values have one line each; a value too long for its column is set smaller rather than wrapped
+        float width = font.getWidthPoint(text, size);
+        if (width > VALUE_WIDTH) {
+            size = size * VALUE_WIDTH / width;
+        }
+        canvas.beginText();
+        canvas.setFontAndSize(font, size);
+        canvas.setTextMatrix(x, y);
+        canvas.showText(text);
+        canvas.endText();
+    }
+
+    private static byte[] renderTemplate() throws DocumentException {
         Document document = new Document(PageSize.A4, 50, 50, 50, 50);
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
+
         try {
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, baos);
             document.open();
+            PdfContentByte canvas = writer.getDirectContent();
 
             // Add VuBank header
-            addHeader(document);
-            
-            // Add transaction receipt content
-            addReceiptContent(document, receipt);
-            
+            addCentered(canvas, "VuBank", TITLE_FONT, 765);
+            addCentered(canvas, "Next Generation Banking", NORMAL_FONT, 737);
+            addCentered(canvas, "TRANSACTION RECEIPT", HEADER_FONT, 696);
+            addSeparator(canvas, 653);
+
+            // Add transaction detail labels
+            addLabel(canvas, "Transaction ID:", NORMAL_FONT, TRANSACTION_ID_Y);
+            addLabel(canvas, "Date & Time:", NORMAL_FONT, TIMESTAMP_Y);
+            addLabel(canvas, "Status:", NORMAL_FONT, STATUS_Y);
+            addLabel(canvas, "Customer Name:", NORMAL_FONT, CUSTOMER_NAME_Y);
+            addLabel(canvas, "Customer ID:", NORMAL_FONT, CUSTOMER_ID_Y);
+            addLabel(canvas, "From Account:", NORMAL_FONT, FROM_ACCOUNT_Y);
+            addLabel(canvas, "To Account:", NORMAL_FONT, TO_ACCOUNT_Y);
+            addLabel(canvas, "Payee Name:", NORMAL_FONT, PAYEE_NAME_Y);
+            addLabel(canvas, "Payment Mode:", NORMAL_FONT, PAYMENT_MODE_Y);
+            addLabel(canvas, "Amount:", HEADER_FONT, AMOUNT_Y);
+
+            // Amount (highlighted)
+            canvas.saveState();
+            canvas.setColorFill(AMOUNT_BACKGROUND);
+            canvas.rectangle(VALUE_X - 8, AMOUNT_Y - 8, RIGHT - (VALUE_X - 8), 30);
+            canvas.fill();
+            canvas.restoreState();
+
             // Add footer
-            addFooter(document);
-            
+            addSeparator(canvas, 243);
+            addCentered(canvas, "This is a computer-generated receipt and does not require a signature.", SMALL_FONT, 220);
+            addCentered(canvas, "For any queries, please contact VuBank Customer Support: 1800-VUBANK", SMALL_FONT, 205);
         } finally {
             document.close();
         }
-        
-        return baos.toByteArray();
-    }
 
-    private void addHeader(Document document) throws DocumentException {
-        // VuBank Logo and Title
-        Paragraph title = new Paragraph("VuBank", TITLE_FONT);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(10);
-        document.add(title);
-
-        Paragraph subtitle = new Paragraph("Next Generation Banking", NORMAL_FONT);
-        subtitle.setAlignment(Element.ALIGN_CENTER);
-        subtitle.setSpacingAfter(20);
-        document.add(subtitle);
-
-        // Receipt Title
-        Paragraph receiptTitle = new Paragraph("TRANSACTION RECEIPT", HEADER_FONT);
-        receiptTitle.setAlignment(Element.ALIGN_CENTER);
-        receiptTitle.setSpacingAfter(20);
-        document.add(receiptTitle);
-
-        // Add a line separator
-        LineSeparator line = new LineSeparator(1, 100, BaseColor.LIGHT_GRAY, Element.ALIGN_CENTER, -2);
-        document.add(new Chunk(line));
-        document.add(new Paragraph(" ")); // Add space
+        return baos.toByteArray();
     }
 
-    private void addReceiptContent(Document document, TransactionReceipt receipt) throws DocumentException {
-        // Create a table for transaction details
-        PdfPTable table = new PdfPTable(2);
-        table.setWidthPercentage(100);
-        table.setSpacingBefore(10);
-        table.setSpacingAfter(10);
-        
-        // Set column widths (40% for labels, 60% for values)
-        float[] columnWidths = {40f, 60f};
-        table.setWidths(columnWidths);
-
-        // Add transaction details
-        addTableRow(table, "Transaction ID:", receipt.getTransactionId());
-        addTableRow(table, "Date & Time:", receipt.getTimestamp().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss")));
-        addTableRow(table, "Status:", receipt.getStatus());
-        
-        // Add empty row for spacing
-        addEmptyRow(table);
-        
-        // Customer details
-        addTableRow(table, "Customer Name:", receipt.getCustomerName());
-        addTableRow(table, "Customer ID:", receipt.getCustomerId());
-        
-        // Add empty row for spacing
-        addEmptyRow(table);
-        
-        // Transaction details
-        addTableRow(table, "From Account:", receipt.getFromAccount());
-        addTableRow(table, "To Account:", receipt.getToAccount());
-        addTableRow(table, "Payee Name:", receipt.getPayeeName());
-        addTableRow(table, "Payment Mode:", receipt.getPaymentMode());
-        
-        // Add empty row for spacing
-        addEmptyRow(table);
-        
-        // Amount (highlighted)
-        PdfPCell amountLabelCell = new PdfPCell(new Phrase("Amount:", HEADER_FONT));
-        amountLabelCell.setBorder(Rectangle.NO_BORDER);
-        amountLabelCell.setPadding(8);
-        table.addCell(amountLabelCell);
-        
-        PdfPCell amountValueCell = new PdfPCell(new Phrase("₹" + String.format("%.2f", receipt.getAmount()), HEADER_FONT));
-        amountValueCell.setBorder(Rectangle.NO_BORDER);
-        amountValueCell.setPadding(8);
-        amountValueCell.setBackgroundColor(new BaseColor(240, 248, 255)); // Light blue background
-        table.addCell(amountValueCell);
-
-        document.add(table);
+    private static void addCentered(PdfContentByte canvas, String text, Font font, float y) {
+        ColumnText.showTextAligned(canvas, Element.ALIGN_CENTER, new Phrase(text, font), CENTER_X, y, 0);
     }
 
-    private void addTableRow(PdfPTable table, String label, String value) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, NORMAL_FONT));
-        labelCell.setBorder(Rectangle.NO_BORDER);
-        labelCell.setPadding(8);
-        table.addCell(labelCell);
-        
-        PdfPCell valueCell = new PdfPCell(new Phrase(value != null ? value : "N/A", NORMAL_FONT));
-        valueCell.setBorder(Rectangle.NO_BORDER);
-        valueCell.setPadding(8);
-        table.addCell(valueCell);
+    private static void addLabel(PdfContentByte canvas, String text, Font font, float y) {
+        ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(text, font), LABEL_X, y, 0);
     }
 
-    private void addEmptyRow(PdfPTable table) {
-        PdfPCell emptyCell1 = new PdfPCell(new Phrase(" ", SMALL_FONT));
-        emptyCell1.setBorder(Rectangle.NO_BORDER);
-        emptyCell1.setPadding(4);
-        table.addCell(emptyCell1);
-        
-        PdfPCell emptyCell2 = new PdfPCell(new Phrase(" ", SMALL_FONT));
-        emptyCell2.setBorder(Rectangle.NO_BORDER);
-        emptyCell2.setPadding(4);
-        table.addCell(emptyCell2);
+    private static void addSeparator(PdfContentByte canvas, float y) {
+        canvas.saveState();
+        canvas.setLineWidth(1);
+        canvas.setColorStroke(BaseColor.LIGHT_GRAY);
+        canvas.moveTo(LEFT, y);
+        canvas.lineTo(RIGHT, y);
+        canvas.stroke();
+        canvas.restoreState();
     }
 
-    private void addFooter(Document document) throws DocumentException {
-        document.add(new Paragraph(" ")); // Add space
-        
-        // Add line separator
-        LineSeparator line = new LineSeparator(1, 100, BaseColor.LIGHT_GRAY, Element.ALIGN_CENTER, -2);
-        document.add(new Chunk(line));
-        
-        Paragraph footer1 = new Paragraph("This is a computer-generated receipt and does not require a signature.", SMALL_FONT);
-        footer1.setAlignment(Element.ALIGN_CENTER);
-        footer1.setSpacingBefore(10);
-        document.add(footer1);
-        
-        Paragraph footer2 = new Paragraph("For any queries, please contact VuBank Customer Support: 1800-VUBANK", SMALL_FONT);
-        footer2.setAlignment(Element.ALIGN_CENTER);
-        footer2.setSpacingAfter(10);
-        document.add(footer2);
+    private static BaseFont createFont(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        } catch (DocumentException | IOException e) {
+            throw new IllegalStateException("Cannot load font " + name, e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.vubank.pdf.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import com.vubank.pdf.model.TransactionReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders a stream of receipts (NDJSON, one TransactionReceipt per line) into a ZIP of PDFs or one
+ * merged PDF, written to the output as it is produced. Receipts are rendered on the shared
+ * receiptRenderingExecutor and written in input order. At most
+ * {@code pdf.batch.max-in-flight-per-request} receipts of a batch are read ahead of the output, so
+ * a slow client or a busy pool stops the input from being read and memory stays bounded whatever
+ * the size of the batch.
+ */
+@Service
+public class ReceiptBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptBatchService.class);
+
+    public enum Format { ZIP, PDF }
+
+    private final PdfGeneratorService pdfGeneratorService;
+    private final AsyncTaskExecutor renderingExecutor;
+    private final ObjectReader receiptReader;
+
+    @Value("${pdf.batch.max-in-flight-per-request:32}")
+    private int maxInFlight;
+
+    public ReceiptBatchService(PdfGeneratorService pdfGeneratorService,
+                               @Qualifier("receiptRenderingExecutor") AsyncTaskExecutor renderingExecutor,
+                               ObjectMapper objectMapper) {
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.renderingExecutor = renderingExecutor;
+        this.receiptReader = objectMapper.readerFor(TransactionReceipt.class);
+    }
+
+    /**
+     * Reads receipts until the input ends and returns how many were written. The output is left open.
+     */
+    public int writeBatch(InputStream ndjson, OutputStream out, Format format) throws IOException {
+        long started = System.currentTimeMillis();
+        BatchSink sink = format == Format.ZIP ? new ZipSink(out) : new MergedPdfSink(out);
+        ArrayDeque<CompletableFuture<RenderedReceipt>> window = new ArrayDeque<>();
+        int count = 0;
+
+        try (MappingIterator<TransactionReceipt> receipts = receiptReader.readValues(ndjson)) {
+            while (receipts.hasNextValue()) {
+                TransactionReceipt receipt = receipts.nextValue();
+                if (window.size() >= maxInFlight) {
+                    sink.add(await(window.poll()));
+                }
+                int index = ++count;
+                window.add(CompletableFuture.supplyAsync(() -> render(index, receipt), renderingExecutor));
+            }
+            while (!window.isEmpty()) {
+                sink.add(await(window.poll()));
+            }
+            sink.finish();
+        } catch (IOException | RuntimeException e) {
+            window.forEach(pending -> pending.cancel(false));
+            logger.error("Receipt batch aborted after {} receipts: {}", count, e.getMessage());
+            throw e;
+        }
+
+        logger.info("Rendered batch of {} receipts as {} in {} ms", count, format, System.currentTimeMillis() - started);
+        return count;
+    }
+
+    private RenderedReceipt render(int index, TransactionReceipt receipt) {
+        try {
+            return new RenderedReceipt(index, receipt.getTransactionId(), pdfGeneratorService.generateReceiptPdf(receipt));
+        } catch (DocumentException | IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static RenderedReceipt await(CompletableFuture<RenderedReceipt> pending) throws IOException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to render receipt", e.getCause());
+        }
+    }
+
+    private record RenderedReceipt(int index, String transactionId, byte[] pdf) {
+    }
+
+    private interface BatchSink {
+        void add(RenderedReceipt receipt) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static class ZipSink implements BatchSink {
+        private final ZipOutputStream zip;
+
+        ZipSink(OutputStream out) {
+            this.zip = new ZipOutputStream(out);
+            // PDF streams are already compressed; spend little time on the rest
+            this.zip.setLevel(Deflater.BEST_SPEED);
+        }
+
+        @Override
+        public void add(RenderedReceipt receipt) throws IOException {
+            String transactionId = receipt.transactionId() != null
+                ? receipt.transactionId().replaceAll("[^A-Za-z0-9._-]", "_") : "unknown";
+            zip.putNextEntry(new ZipEntry(String.format("%06d_VuBank_Receipt_%s.pdf", receipt.index(), transactionId)));
+            zip.write(receipt.pdf());
+            zip.closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            zip.finish();
+        }
+    }
+
+    private static class MergedPdfSink implements BatchSink {
+        private final OutputStream out;
+        private final Document document = new Document();
+        private PdfCopy copy;
+
+        MergedPdfSink(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void add(RenderedReceipt receipt) throws IOException {
+            PdfReader reader = new PdfReader(receipt.pdf());
+            try {
+                if (copy == null) {
+                    // Opened with the first page so an empty batch fails before anything is written
+                    copy = new PdfCopy(document, out);
+                    copy.setCloseStream(false);
+                    document.open();
+                }
+                copy.addPage(copy.getImportedPage(reader, 1));
+                // Writes the page out now and drops the reader's objects from the copy
+                copy.freeReader(reader);
+            } catch (DocumentException e) {
+                throw new IOException("Failed to add receipt " + receipt.transactionId(), e);
+            } finally {
+                reader.close();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (copy == null) {
+                throw new IOException("No receipts in batch");
+            }
+            document.close();
+        }
+    }
+}
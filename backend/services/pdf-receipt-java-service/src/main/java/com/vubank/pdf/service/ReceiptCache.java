@@ -0,0 +1,256 @@
+package com.vubank.pdf.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.vubank.pdf.model.TransactionReceipt;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rendered receipts keyed by a SHA-256 of the TransactionReceipt fields, which is also the ETag.
+ * Only receipts in one of {@code pdf.cache.terminal-statuses} are stored, since those never change
+ * and can be kept indefinitely. The in-memory tier is bounded by {@code pdf.cache.memory.max-bytes};
+ * the optional disk tier keeps one file per receipt and, once {@code pdf.cache.disk.max-bytes} is
+ * reached, deletes the files its size-weighted Caffeine index evicts, like the memory tier.
+ * Statistics are published as cache.* metrics (cache=receipt-pdf) for the memory tier and
+ * receipt.cache.disk.requests for the disk tier.
+ */
+@Component
+public class ReceiptCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptCache.class);
+
+    // Bump when the template changes so receipts rendered with the old layout are no longer found
+    private static final String LAYOUT_VERSION = "1";
+
+    private final boolean enabled;
+    private final Set<String> terminalStatuses;
+    private final Cache<String, byte[]> memory;
+    private final Path diskDirectory;
+    private final Cache<String, Long> disk;
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+
+    public ReceiptCache(@Value("${pdf.cache.enabled:true}") boolean enabled,
+                        @Value("${pdf.cache.terminal-statuses:SUCCESS,COMPLETED,FAILED,REJECTED}") Set<String> terminalStatuses,
+                        @Value("${pdf.cache.memory.max-bytes:67108864}") long memoryMaxBytes,
+                        @Value("${pdf.cache.disk.enabled:false}") boolean diskEnabled,
+                        @Value("${pdf.cache.disk.directory:${java.io.tmpdir}/vubank-receipt-cache}") String diskDirectory,
+                        @Value("${pdf.cache.disk.max-bytes:1073741824}") long diskMaxBytes) throws IOException {
+        this.enabled = enabled;
+        this.terminalStatuses = terminalStatuses.stream()
+            .map(status -> status.trim().toUpperCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+        this.memory = Caffeine.newBuilder()
+            .maximumWeight(memoryMaxBytes)
+            .weigher((String key, byte[] pdf) -> pdf.length)
+            .recordStats()
+            .build();
+        this.diskDirectory = enabled && diskEnabled ? Paths.get(diskDirectory) : null;
+        this.disk = this.diskDirectory != null ? openDisk(this.diskDirectory, diskMaxBytes) : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, memory, "receipt-pdf");
+        if (disk != null) {
+            Gauge.builder("receipt.cache.disk.bytes", disk, ReceiptCache::diskBytes).register(registry);
+            FunctionCounter.builder("receipt.cache.disk.requests", diskHits, AtomicLong::get)
+                .tag("result", "hit").register(registry);
+            FunctionCounter.builder("receipt.cache.disk.requests", diskMisses, AtomicLong::get)
+                .tag("result", "miss").register(registry);
+        }
+    }
+
+    public boolean isCacheable(TransactionReceipt receipt) {
+        return enabled && receipt.getStatus() != null
+            && terminalStatuses.contains(receipt.getStatus().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Hex SHA-256 over every field that appears on the receipt, plus the layout version.
+     */
+    public String keyOf(TransactionReceipt receipt) {
+        MessageDigest digest = sha256();
+        update(digest, LAYOUT_VERSION);
+        update(digest, receipt.getTransactionId());
+        update(digest, receipt.getFromAccount());
+        update(digest, receipt.getToAccount());
+        update(digest, receipt.getPayeeName());
+        update(digest, receipt.getAmount() != null ? receipt.getAmount().toString() : null);
+        update(digest, receipt.getPaymentMode());
+        update(digest, receipt.getTimestamp() != null ? receipt.getTimestamp().toString() : null);
+        update(digest, receipt.getStatus());
+        update(digest, receipt.getCustomerName());
+        update(digest, receipt.getCustomerId());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the cached receipt, or null if neither tier has it. A disk hit is read back into the
+     * memory tier.
+     */
+    public CachedPdf get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] pdf = memory.getIfPresent(key);
+        if (pdf != null) {
+            return new HeapPdf(pdf);
+        }
+        if (disk == null) {
+            return null;
+        }
+        if (disk.getIfPresent(key) == null) {
+            diskMisses.incrementAndGet();
+            return null;
+        }
+        Path file = diskDirectory.resolve(key + ".pdf");
+        try {
+            pdf = Files.readAllBytes(file);
+        } catch (IOException e) {
+            if (!(e instanceof NoSuchFileException)) {
+                logger.warn("Cannot read cached receipt {}: {}", file, e.getMessage());
+            }
+            // Removed by a concurrent eviction, or unreadable; forget it so it is written again
+            disk.invalidate(key);
+            diskMisses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        memory.put(key, pdf);
+        return new HeapPdf(pdf);
+    }
+
+    public CachedPdf put(String key, byte[] pdf) {
+        if (enabled) {
+            memory.put(key, pdf);
+            if (disk != null && disk.getIfPresent(key) == null) {
+                writeToDisk(key, pdf);
+            }
+        }
+        return new HeapPdf(pdf);
+    }
+
+    private void writeToDisk(String key, byte[] pdf) {
+        Path file = diskDirectory.resolve(key + ".pdf");
+        try {
+            // Written under a temporary name and renamed, so a reader never sees a partial file
+            Path temp = Files.createTempFile(diskDirectory, key, ".tmp");
+            try {
+                Files.write(temp, pdf);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot store receipt {} on disk: {}", key, e.getMessage());
+            return;
+        }
+        // Two requests may render and rename the same receipt; only the first one is counted
+        disk.asMap().putIfAbsent(key, (long) pdf.length);
+    }
+
+    private Cache<String, Long> openDisk(Path directory, long maxBytes) throws IOException {
+        Files.createDirectories(directory);
+        // File sizes by key, evicted under the same size policy as the memory tier; eviction deletes the file
+        Cache<String, Long> index = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Long size) -> (int) Math.min(size, Integer.MAX_VALUE))
+            .evictionListener((String key, Long size, RemovalCause cause) -> deleteFromDisk(directory, key))
+            .build();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                try {
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(".pdf")) {
+                        index.put(name.substring(0, name.length() - ".pdf".length()), Files.size(file));
+                    }
+                } catch (IOException e) {
+                    logger.warn("Cannot inspect cached receipt {}: {}", file, e.getMessage());
+                }
+            });
+        }
+        index.cleanUp();
+        logger.info("Receipt disk cache at {} holds {} bytes", directory, diskBytes(index));
+        return index;
+    }
+
+    private static void deleteFromDisk(Path directory, String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + ".pdf"));
+        } catch (IOException e) {
+            logger.warn("Cannot evict cached receipt {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static long diskBytes(Cache<String, Long> index) {
+        return index.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Length-prefixed so that adjacent fields cannot run into each other
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public interface CachedPdf {
+        long size();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private record HeapPdf(byte[] pdf) implements CachedPdf {
+        @Override
+        public long size() {
+            return pdf.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(pdf);
+        }
+    }
+}
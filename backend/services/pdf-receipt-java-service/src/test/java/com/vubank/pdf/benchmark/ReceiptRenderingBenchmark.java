@@ -0,0 +1,213 @@
+package com.vubank.pdf.benchmark;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.draw.LineSeparator;
+import com.vubank.pdf.model.TransactionReceipt;
+import com.vubank.pdf.service.PdfGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receipts per second from {@link PdfGeneratorService}, which stamps the ten values onto a template
+ * rendered at startup, against the Document/PdfPTable builder it replaced, with the sample receipt
+ * from the README. Run with -prof gc: gc.alloc.rate.norm is the bytes allocated per receipt, which
+ * is where the 938 KB (builder) and 88 KB (template) figures come from. The size of each PDF is
+ * printed at the end of the trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReceiptRenderingBenchmark {
+
+    private PdfGeneratorService templateRenderer;
+    private LegacyReceiptBuilder legacyBuilder;
+    private TransactionReceipt receipt;
+
+    @Setup
+    public void setUp() throws DocumentException {
+        templateRenderer = new PdfGeneratorService();
+        legacyBuilder = new LegacyReceiptBuilder();
+
+        receipt = new TransactionReceipt();
+        receipt.setTransactionId("TXN123456789");
+        receipt.setFromAccount("Savings - ****1234");
+        receipt.setToAccount("987654321");
+        receipt.setPayeeName("John Smith");
+        receipt.setAmount(1500.00);
+        receipt.setPaymentMode("IMPS");
+        receipt.setTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30));
+        receipt.setStatus("SUCCESS");
+        receipt.setCustomerName("John Doe");
+        receipt.setCustomerId("CUST001");
+    }
+
+    @TearDown
+    public void tearDown() throws DocumentException, IOException {
+        System.out.printf("%nPDF bytes/receipt: builder %d, template %d%n",
+            legacyBuilder.generateReceiptPdf(receipt).length,
+            templateRenderer.generateReceiptPdf(receipt).length);
+    }
+
+    @Benchmark
+    public byte[] template() throws DocumentException, IOException {
+        return templateRenderer.generateReceiptPdf(receipt);
+    }
+
+    @Benchmark
+    public byte[] builder() throws DocumentException {
+        return legacyBuilder.generateReceiptPdf(receipt);
+    }
+
+    /**
+     * The renderer PdfGeneratorService used before the template: the whole page, branding, table
+     * and footer included, laid out again for every receipt.
+     */
+    static class LegacyReceiptBuilder {
+
+        private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.DARK_GRAY);
+        private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14, BaseColor.BLACK);
+        private static final Font NORMAL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12, BaseColor.BLACK);
+        private static final Font SMALL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, BaseColor.GRAY);
+
+        byte[] generateReceiptPdf(TransactionReceipt receipt) throws DocumentException {
+            Document document = new Document(PageSize.A4, 50, 50, 50, 50);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+            try {
+                PdfWriter.getInstance(document, baos);
+                document.open();
+                addHeader(document);
+                addReceiptContent(document, receipt);
+                addFooter(document);
+            } finally {
+                document.close();
+            }
+
+            return baos.toByteArray();
+        }
+
+        private void addHeader(Document document) throws DocumentException {
+            Paragraph title = new Paragraph("VuBank", TITLE_FONT);
+            title.setAlignment(Element.ALIGN_CENTER);
+            title.setSpacingAfter(10);
+            document.add(title);
+
+            Paragraph subtitle = new Paragraph("Next Generation Banking", NORMAL_FONT);
+            subtitle.setAlignment(Element.ALIGN_CENTER);
+            subtitle.setSpacingAfter(20);
+            document.add(subtitle);
+
+            Paragraph receiptTitle = new Paragraph("TRANSACTION RECEIPT", HEADER_FONT);
+            receiptTitle.setAlignment(Element.ALIGN_CENTER);
+            receiptTitle.setSpacingAfter(20);
+            document.add(receiptTitle);
+
+            LineSeparator line = new LineSeparator(1, 100, BaseColor.LIGHT_GRAY, Element.ALIGN_CENTER, -2);
+            document.add(new Chunk(line));
+            document.add(new Paragraph(" "));
+        }
+
+        private void addReceiptContent(Document document, TransactionReceipt receipt) throws DocumentException {
+            PdfPTable table = new PdfPTable(2);
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(10);
+            table.setSpacingAfter(10);
+            table.setWidths(new float[] {40f, 60f});
+
+            addTableRow(table, "Transaction ID:", receipt.getTransactionId());
+            addTableRow(table, "Date & Time:", receipt.getTimestamp().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss")));
+            addTableRow(table, "Status:", receipt.getStatus());
+            addEmptyRow(table);
+            addTableRow(table, "Customer Name:", receipt.getCustomerName());
+            addTableRow(table, "Customer ID:", receipt.getCustomerId());
+            addEmptyRow(table);
+            addTableRow(table, "From Account:", receipt.getFromAccount());
+            addTableRow(table, "To Account:", receipt.getToAccount());
+            addTableRow(table, "Payee Name:", receipt.getPayeeName());
+            addTableRow(table, "Payment Mode:", receipt.getPaymentMode());
+            addEmptyRow(table);
+
+            PdfPCell amountLabelCell = new PdfPCell(new Phrase("Amount:", HEADER_FONT));
+            amountLabelCell.setBorder(Rectangle.NO_BORDER);
+            amountLabelCell.setPadding(8);
+            table.addCell(amountLabelCell);
+
+            PdfPCell amountValueCell = new PdfPCell(new Phrase("₹" + String.format("%.2f", receipt.getAmount()), HEADER_FONT));
+            amountValueCell.setBorder(Rectangle.NO_BORDER);
+            amountValueCell.setPadding(8);
+            amountValueCell.setBackgroundColor(new BaseColor(240, 248, 255));
+            table.addCell(amountValueCell);
+
+            document.add(table);
+        }
+
+        private void addTableRow(PdfPTable table, String label, String value) {
+            PdfPCell labelCell = new PdfPCell(new Phrase(label, NORMAL_FONT));
+            labelCell.setBorder(Rectangle.NO_BORDER);
+            labelCell.setPadding(8);
+            table.addCell(labelCell);
+
+            PdfPCell valueCell = new PdfPCell(new Phrase(value != null ? value : "N/A", NORMAL_FONT));
+            valueCell.setBorder(Rectangle.NO_BORDER);
+            valueCell.setPadding(8);
+            table.addCell(valueCell);
+        }
+
+        private void addEmptyRow(PdfPTable table) {
+            for (int i = 0; i < 2; i++) {
+                PdfPCell emptyCell = new PdfPCell(new Phrase(" ", SMALL_FONT));
+                emptyCell.setBorder(Rectangle.NO_BORDER);
+                emptyCell.setPadding(4);
+                table.addCell(emptyCell);
+            }
+        }
+
+        private void addFooter(Document document) throws DocumentException {
+            document.add(new Paragraph(" "));
+
+            LineSeparator line = new LineSeparator(1, 100, BaseColor.LIGHT_GRAY, Element.ALIGN_CENTER, -2);
+            document.add(new Chunk(line));
+
+            Paragraph footer1 = new Paragraph("This is a computer-generated receipt and does not require a signature.", SMALL_FONT);
+            footer1.setAlignment(Element.ALIGN_CENTER);
+            footer1.setSpacingBefore(10);
+            document.add(footer1);
+
+            Paragraph footer2 = new Paragraph("For any queries, please contact VuBank Customer Support: 1800-VUBANK", SMALL_FONT);
+            footer2.setAlignment(Element.ALIGN_CENTER);
+            footer2.setSpacingAfter(10);
+            document.add(footer2);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.vubank.apm;
+
+import co.elastic.apm.attach.ElasticApmAttacher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Attaches the Elastic APM agent from main() with the options of an {@link ApmProfile}, chosen with
+ * ELASTIC_APM_PROFILE and ELASTIC_APM_SAMPLING (or -Dapm.profile / -Dapm.sampling). The options are
+ * written to the agent's config file, which the agent re-reads for its dynamic options, so
+ * {@link #switchTo} changes the profile of a running service. ELASTIC_APM_* environment variables
+ * and elastic.apm.* system properties still take precedence over the profile.
+ */
+public final class ApmBootstrap {
+
+    private static ApmProfile profile;
+    private static ApmProfile.Sampling sampling;
+    private static Map<String, String> serviceOptions;
+    private static String applicationPackages;
+    private static Path configFile;
+    private static boolean attached;
+
+    private ApmBootstrap() {
+    }
+
+    public static synchronized void attach(String serviceName, String packages) {
+        profile = parseProfile(setting("ELASTIC_APM_PROFILE", "apm.profile", "production"));
+        sampling = parseSampling(setting("ELASTIC_APM_SAMPLING", "apm.sampling", "head"));
+        applicationPackages = packages;
+
+        serviceOptions = new LinkedHashMap<>();
+        serviceOptions.put("service_name", serviceName);
+        serviceOptions.put("service_version", "1.0.0");
+        serviceOptions.put("environment", "production");
+        serviceOptions.put("server_url", "http://91.203.133.240:30200");
+        serviceOptions.put("application_packages", packages);
+        serviceOptions.put("enable_log_correlation", "true");
+        serviceOptions.put("log_level", "INFO");
+        serviceOptions.put("stack_trace_limit", "50");
+        serviceOptions.put("metrics_interval", "30s");
+        serviceOptions.put("max_queue_size", "1000");
+
+        String configured = setting("ELASTIC_APM_CONFIG_FILE", "elastic.apm.config_file", null);
+        configFile = configured != null ? Paths.get(configured)
+            : Paths.get(System.getProperty("java.io.tmpdir"), "vubank-apm-" + serviceName + ".properties");
+        System.setProperty("elastic.apm.config_file", configFile.toString());
+
+        try {
+            writeConfigFile();
+            ElasticApmAttacher.attach();
+            attached = true;
+            System.out.println("✅ APM Agent attached with the " + profile.displayName() + " profile ("
+                + sampling.name().toLowerCase(Locale.ROOT) + " sampling)");
+            System.out.println("   Service: " + serviceName + " v1.0.0, config file " + configFile);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to attach APM agent: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Rewrites the agent config file with another profile. The agent applies dynamic options when it
+     * next re-reads the file (every 30 seconds); returns the state after the switch.
+     */
+    public static synchronized Map<String, Object> switchTo(ApmProfile newProfile, ApmProfile.Sampling newSampling)
+            throws IOException {
+        ApmProfile previous = profile;
+        profile = newProfile;
+        sampling = newSampling != null ? newSampling : sampling;
+        writeConfigFile();
+
+        Map<String, Object> state = describe();
+        List<String> restartRequired = new ArrayList<>();
+        for (String option : ApmProfile.STATIC_OPTIONS) {
+            String before = previous.agentOptions(sampling, applicationPackages).get(option);
+            if (!before.equals(profile.agentOptions(sampling, applicationPackages).get(option))) {
+                restartRequired.add(option);
+            }
+        }
+        state.put("restartRequired", restartRequired);
+        return state;
+    }
+
+    public static synchronized Map<String, Object> describe() {
+        Map<String, String> options = profile.agentOptions(sampling, applicationPackages);
+        List<String> overridden = new ArrayList<>();
+        for (String option : options.keySet()) {
+            if (isOverridden(option)) {
+                overridden.add(option);
+            }
+        }
+
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("profile", profile.displayName());
+        state.put("sampling", sampling.name().toLowerCase(Locale.ROOT));
+        state.put("attached", attached);
+        state.put("configFile", configFile.toString());
+        state.put("options", options);
+        state.put("overriddenByEnvironment", overridden);
+        return state;
+    }
+
+    private static void writeConfigFile() throws IOException {
+        StringBuilder properties = new StringBuilder("# Written by ApmBootstrap: profile ")
+            .append(profile.displayName()).append(", ")
+            .append(sampling.name().toLowerCase(Locale.ROOT)).append(" sampling\n");
+        serviceOptions.forEach((key, value) -> properties.append(key).append('=').append(value).append('\n'));
+        profile.agentOptions(sampling, applicationPackages)
+            .forEach((key, value) -> properties.append(key).append('=').append(value).append('\n'));
+
+        // Replaced in one step so the agent never reads a half-written file
+        Path parent = configFile.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, "vubank-apm", ".tmp");
+        try {
+            Files.writeString(temp, properties, StandardCharsets.UTF_8);
+            Files.move(temp, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // A mistyped setting must not stop the service from starting; it falls back to the default
+    private static ApmProfile parseProfile(String name) {
+        try {
+            return ApmProfile.fromName(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️  Unknown APM profile '" + name + "', using production");
+            return ApmProfile.PRODUCTION;
+        }
+    }
+
+    private static ApmProfile.Sampling parseSampling(String name) {
+        try {
+            return ApmProfile.Sampling.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️  Unknown APM sampling mode '" + name + "', using head");
+            return ApmProfile.Sampling.HEAD;
+        }
+    }
+
+    private static boolean isOverridden(String option) {
+        return System.getProperty("elastic.apm." + option) != null
+            || System.getenv("ELASTIC_APM_" + option.toUpperCase(Locale.ROOT)) != null;
+    }
+
+    private static String setting(String env, String property, String defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(env);
+        }
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+}
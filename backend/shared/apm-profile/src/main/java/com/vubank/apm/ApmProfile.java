@@ -0,0 +1,83 @@
+package com.vubank.apm;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Named sets of Elastic APM agent options. PRODUCTION samples a share of transactions, keeps only
+ * spans that take measurable time and captures JSON/XML bodies of failed requests only; LOAD_TEST
+ * samples less and captures no bodies; DEBUG is the previous capture-everything setup; OFF keeps the
+ * agent attached but not recording, as the baseline for overhead measurements.
+ *
+ * The PRODUCTION and LOAD_TEST values (sample rate, span minimum duration, span cap) are
+ * unmeasured placeholders: no overhead has been recorded for any profile yet. Measure them with
+ * test_apm_profile_overhead.sh against a deployed stack and adjust before relying on them.
+ */
+public enum ApmProfile {
+
+    // Placeholders until measured, see above
+    PRODUCTION("0.1", "errors", "5ms", "100ms", "200", false),
+    LOAD_TEST("0.01", "off", "10ms", "-1ms", "100", false),
+    DEBUG("1.0", "all", "0ms", "0ms", "500", true),
+    OFF("0.0", "off", "0ms", "-1ms", "0", false);
+
+    /**
+     * HEAD lets the agent sample at the profile's rate; errors are reported whether or not their
+     * transaction was sampled. TAIL sends every transaction and leaves the keep decision to the APM
+     * Server's tail-based sampling policies (e.g. all failed traces plus a share of the rest).
+     */
+    public enum Sampling { HEAD, TAIL }
+
+    // Options the agent only reads at startup; changing them at runtime needs a restart
+    public static final String[] STATIC_OPTIONS = { "trace_methods", "profiling_inferred_spans_enabled" };
+
+    private static final String BODY_CONTENT_TYPES = "application/json*, application/xml*";
+
+    private final String sampleRate;
+    private final String captureBody;
+    private final String spanMinDuration;
+    private final String spanStackTraceMinDuration;
+    private final String transactionMaxSpans;
+    private final boolean methodTracing;
+
+    ApmProfile(String sampleRate, String captureBody, String spanMinDuration,
+               String spanStackTraceMinDuration, String transactionMaxSpans, boolean methodTracing) {
+        this.sampleRate = sampleRate;
+        this.captureBody = captureBody;
+        this.spanMinDuration = spanMinDuration;
+        this.spanStackTraceMinDuration = spanStackTraceMinDuration;
+        this.transactionMaxSpans = transactionMaxSpans;
+        this.methodTracing = methodTracing;
+    }
+
+    /**
+     * Accepts the enum name or its lower-case, dashed form (e.g. "load-test").
+     */
+    public static ApmProfile fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String displayName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Agent options for this profile, keyed by the agent's option names.
+     */
+    public Map<String, String> agentOptions(Sampling sampling, String applicationPackages) {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("recording", String.valueOf(this != OFF));
+        options.put("transaction_sample_rate", sampling == Sampling.TAIL && this != OFF ? "1.0" : sampleRate);
+        options.put("capture_body", captureBody);
+        options.put("capture_body_content_types", BODY_CONTENT_TYPES);
+        options.put("capture_headers", String.valueOf(this == DEBUG));
+        options.put("span_min_duration", spanMinDuration);
+        options.put("span_stack_trace_min_duration", spanStackTraceMinDuration);
+        options.put("transaction_max_spans", transactionMaxSpans);
+        options.put("profiling_inferred_spans_enabled", String.valueOf(methodTracing));
+        options.put("profiling_inferred_spans_min_duration", methodTracing ? "0ms" : "50ms");
+        options.put("trace_methods", methodTracing ? applicationPackages + ".*" : "");
+        return options;
+    }
+}
@@ -0,0 +1,66 @@
+package com.vubank.apm;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GET /actuator/apmprofile shows the active APM profile and its agent options;
+ * POST /actuator/apmprofile {"profile": "load-test", "sampling": "tail", "token": "..."} switches it
+ * at runtime. Switching is refused unless observability.apm-profile.switch-token is set and the
+ * request carries it: the debug profile sends headers and bodies, tokens included, to the APM Server.
+ * Each service registers it as a bean, passing that property.
+ */
+@Endpoint(id = "apmprofile")
+public class ApmProfileEndpoint {
+
+    private final String switchToken;
+
+    public ApmProfileEndpoint(String switchToken) {
+        this.switchToken = switchToken != null ? switchToken : "";
+    }
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        return ApmBootstrap.describe();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> switchProfile(String profile, @Nullable String sampling,
+                                                                  @Nullable String token) {
+        if (switchToken.isEmpty()) {
+            return new WebEndpointResponse<>(Map.of("error", "APM profile switching is disabled"),
+                WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (token == null || !MessageDigest.isEqual(switchToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            return new WebEndpointResponse<>(Map.of("error", "Invalid token"), 403);
+        }
+
+        ApmProfile newProfile;
+        ApmProfile.Sampling newSampling;
+        try {
+            newProfile = ApmProfile.fromName(profile);
+            newSampling = sampling != null ? ApmProfile.Sampling.valueOf(sampling.trim().toUpperCase(Locale.ROOT)) : null;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Unknown APM profile or sampling mode",
+                "profile must be one of production, load-test, debug, off; sampling one of head, tail");
+        }
+
+        try {
+            return new WebEndpointResponse<>(ApmBootstrap.switchTo(newProfile, newSampling));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the APM config file", e);
+        }
+    }
+}
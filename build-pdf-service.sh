@@ -15,6 +15,10 @@ if ! command -v mvn &> /dev/null; then
     exit 1
 fi
 
+# The APM profile classes come from the shared module
+echo "Installing shared APM profile module..."
+mvn -B -q -f ../../shared/apm-profile/pom.xml install || exit 1
+
 # Clean and compile
 echo "Compiling PDF service..."
 mvn clean compile
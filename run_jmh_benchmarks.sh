@@ -0,0 +1,32 @@
+#!/bin/bash
+
+echo "=== JMH Microbenchmarks ==="
+echo
+
+# Usage: ./run_jmh_benchmarks.sh <service> [jmh args...]
+#   ./run_jmh_benchmarks.sh payment-process-java-service XmlParsingBenchmark -prof gc
+# Benchmarks live in each Java service's src/test/java/**/benchmark, with JMH as a test dependency.
+# They are compiled with the test sources and org.openjdk.jmh.Main is started as its own JVM on the
+# test classpath, so the JVMs JMH forks for each benchmark see the same classpath. Without a
+# benchmark regex every benchmark of the service runs.
+SERVICE=${1:?"usage: $0 <service directory under backend/services> [jmh args...]"}
+shift
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+SERVICE_DIR="$SCRIPT_DIR/backend/services/$SERVICE"
+if [ ! -f "$SERVICE_DIR/pom.xml" ]; then
+    echo "❌ No pom.xml in $SERVICE_DIR" >&2
+    exit 1
+fi
+
+echo "Service:   $SERVICE"
+echo "JMH args:  ${*:-(all benchmarks)}"
+echo
+
+# The services depend on the shared APM profile module, so install it first
+mvn -B -q -f "$SCRIPT_DIR/backend/shared/apm-profile/pom.xml" install || exit 1
+
+cd "$SERVICE_DIR" && mvn -B test-compile exec:exec \
+    -Dexec.classpathScope=test \
+    -Dexec.executable=java \
+    -Dexec.args="-cp %classpath org.openjdk.jmh.Main $*"
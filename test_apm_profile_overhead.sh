@@ -0,0 +1,72 @@
+#!/bin/bash
+
+echo "=== APM Agent Overhead per Observability Profile ==="
+echo
+
+# Usage: ./test_apm_profile_overhead.sh [total_requests] [concurrency] [profiles...]
+# Switches CoreBanking's APM profile through /actuator/apmprofile, waits for the agent to re-read
+# its config file, then runs test_payment_load.sh. The "off" profile (agent attached, not
+# recording) is the baseline that overhead is measured against, so it always runs first.
+# APM_PROFILE_SWITCH_TOKEN must match the service's observability.apm-profile.switch-token.
+TOTAL=${1:-1000}
+CONCURRENCY=${2:-100}
+shift $(( $# < 2 ? $# : 2 ))
+PROFILES=${@:-"production load-test debug"}
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+ACTUATOR_URL=${ACTUATOR_URL:-"http://localhost:8005/actuator/apmprofile"}
+TOKEN=${APM_PROFILE_SWITCH_TOKEN:?"set APM_PROFILE_SWITCH_TOKEN to the services' switch token"}
+# The agent re-reads dynamic options from its config file every 30 seconds
+RELOAD_WAIT=${RELOAD_WAIT:-35}
+
+echo "Requests per profile: $TOTAL"
+echo "Concurrency:          $CONCURRENCY"
+echo "Profiles:             off (baseline) $PROFILES"
+echo
+
+run_profile() {
+    local profile=$1
+    local response
+    response=$(curl -s -X POST "$ACTUATOR_URL" -H "Content-Type: application/json" -d "{\"profile\": \"$profile\", \"token\": \"$TOKEN\"}")
+    if ! echo "$response" | grep -q "\"profile\":\"$profile\""; then
+        echo "❌ Could not switch to $profile: $response" >&2
+        return 1
+    fi
+    if echo "$response" | grep -q '"restartRequired":\["'; then
+        echo "   ⚠️  $profile changes startup-only options; restart with ELASTIC_APM_PROFILE=$profile for exact numbers" >&2
+    fi
+    sleep "$RELOAD_WAIT"
+
+    # Warm up with the new settings before measuring
+    "$SCRIPT_DIR/test_payment_load.sh" "$CONCURRENCY" "$CONCURRENCY" > /dev/null
+    "$SCRIPT_DIR/test_payment_load.sh" "$TOTAL" "$CONCURRENCY"
+}
+
+printf "%-12s %-14s %-10s %-10s %-12s\n" "profile" "throughput" "p95 (s)" "p99 (s)" "overhead"
+BASELINE=""
+for PROFILE in off $PROFILES; do
+    OUTPUT=$(run_profile "$PROFILE") || continue
+
+    THROUGHPUT=$(echo "$OUTPUT" | grep "Throughput:" | awk '{print $2}')
+    P95=$(echo "$OUTPUT" | grep "avg .* p95" | awk '{print $6}')
+    P99=$(echo "$OUTPUT" | grep "avg .* p95" | awk '{print $8}')
+
+    if [ -z "$BASELINE" ]; then
+        BASELINE=$THROUGHPUT
+        OVERHEAD="baseline"
+    elif [ -n "$THROUGHPUT" ]; then
+        OVERHEAD="$(echo "scale=1; (1 - $THROUGHPUT / $BASELINE) * 100" | bc)%"
+    else
+        OVERHEAD="n/a"
+    fi
+
+    printf "%-12s %-14s %-10s %-10s %-12s\n" "$PROFILE" "${THROUGHPUT:-n/a} req/s" "${P95:-n/a}" "${P99:-n/a}" "$OVERHEAD"
+done
+echo
+
+# Leave the service on the production profile
+curl -s -o /dev/null -X POST "$ACTUATOR_URL" -H "Content-Type: application/json" -d "{\"profile\": \"production\", \"token\": \"$TOKEN\"}"
+echo "Restored the production profile"
+echo
+
+echo "=== Benchmark Complete ==="
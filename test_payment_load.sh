@@ -0,0 +1,101 @@
+#!/bin/bash
+
+echo "=== CoreBanking Payment Load Test ==="
+echo
+
+# Usage: ./test_payment_load.sh [total_requests] [concurrency] [target_url]
+# Offline (no login or accounts service): start ./accounts_stub_server.py, run CoreBanking with
+# ACCOUNTS_SERVICE_URL=http://localhost:8002 and pass a token directly, e.g.
+#   JWT_TOKEN=vubank-core-secret-2024 ./test_payment_load.sh
+TOTAL=${1:-200}
+CONCURRENCY=${2:-50}
+TARGET_URL=${3:-"http://localhost:8005/core/payments"}
+
+# Test credentials
+USERNAME="sidharth"
+PASSWORD="password123"
+PAYER_ACCOUNT="1001234567893"
+PAYEE_ACCOUNT="2234567890123456"
+
+echo "Target:      $TARGET_URL"
+echo "Requests:    $TOTAL"
+echo "Concurrency: $CONCURRENCY"
+echo
+
+if [ -n "$JWT_TOKEN" ]; then
+    echo "1. Using JWT_TOKEN from the environment (skipping login)"
+    echo
+else
+    echo "1. Getting real JWT token from login service..."
+    LOGIN_RESPONSE=$(curl -s -X POST "http://localhost:8000/api/login" \
+      -H "Content-Type: application/json" \
+      -H "X-Api-Client: web-portal" \
+      -H "X-Requested-With: XMLHttpRequest" \
+      -H "Origin: http://localhost:3000" \
+      -d "{\"username\": \"$USERNAME\", \"password\": \"$PASSWORD\", \"force_login\": true}")
+
+    JWT_TOKEN=$(echo "$LOGIN_RESPONSE" | grep -o '"token":"[^"]*"' | cut -d'"' -f4)
+
+    if [ -z "$JWT_TOKEN" ]; then
+        echo "❌ Failed to get JWT token. Login response:"
+        echo "$LOGIN_RESPONSE"
+        exit 1
+    fi
+
+    echo "✅ Successfully obtained JWT token: ${JWT_TOKEN:0:50}..."
+    echo
+fi
+
+RESULTS_FILE=$(mktemp)
+
+send_payment() {
+    local txn_ref
+    txn_ref=$(uuidgen)
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X POST "$TARGET_URL" \
+      -H "Content-Type: application/json" \
+      -H "Authorization: Bearer $JWT_TOKEN" \
+      -H "X-Request-Id: $(uuidgen)" \
+      -H "X-Origin-Service: payment-process" \
+      -H "X-Txn-Ref: $txn_ref" \
+      -d "{\"txnRef\": \"$txn_ref\", \"paymentType\": \"NEFT\", \"amount\": 1.00, \"currency\": \"INR\",
+           \"payer\": {\"name\": \"Load Test\", \"accountNo\": \"$PAYER_ACCOUNT\"},
+           \"payee\": {\"name\": \"Priya Sharma\", \"accountNo\": \"$PAYEE_ACCOUNT\", \"ifsc\": \"SBIN0000123\"},
+           \"meta\": {\"comments\": \"Load test\", \"initiatedAt\": \"$(date -u +%Y-%m-%dT%H:%M:%SZ)\"}}"
+}
+export -f send_payment
+export TARGET_URL JWT_TOKEN PAYER_ACCOUNT PAYEE_ACCOUNT
+
+echo "2. Sending $TOTAL payments with $CONCURRENCY in flight..."
+START=$(date +%s.%N)
+seq "$TOTAL" | xargs -P "$CONCURRENCY" -I{} bash -c send_payment > "$RESULTS_FILE"
+END=$(date +%s.%N)
+echo
+
+echo "3. Results:"
+ELAPSED=$(echo "$END - $START" | bc)
+echo "   Elapsed:    ${ELAPSED}s"
+echo "   Throughput: $(echo "scale=2; $TOTAL / $ELAPSED" | bc) req/s"
+echo "   Status codes:"
+awk '{print $1}' "$RESULTS_FILE" | sort | uniq -c | sed 's/^/     /'
+echo "   Latency (s):"
+awk '{print $2}' "$RESULTS_FILE" | sort -n | awk '
+    { v[NR] = $1; sum += $1 }
+    END {
+        if (NR == 0) exit
+        printf "     avg %.3f  p50 %.3f  p95 %.3f  p99 %.3f  max %.3f\n",
+            sum / NR, v[int(NR * 0.50) + 1], v[int(NR * 0.95) + 1 > NR ? NR : int(NR * 0.95) + 1],
+            v[int(NR * 0.99) + 1 > NR ? NR : int(NR * 0.99) + 1], v[NR]
+    }'
+echo
+
+echo "4. Executor and pool metrics (corebanking):"
+curl -s "http://localhost:8005/actuator/metrics/executor.active?tag=name:paymentProcessingExecutor"
+echo
+curl -s "http://localhost:8005/actuator/metrics/executor.queued?tag=name:paymentProcessingExecutor"
+echo
+echo
+
+# Clean up
+rm -f "$RESULTS_FILE"
+
+echo "=== Load Test Complete ==="
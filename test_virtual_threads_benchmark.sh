@@ -0,0 +1,45 @@
+#!/bin/bash
+
+echo "=== Platform vs Virtual Thread Concurrency Benchmark ==="
+echo
+
+# Usage: ./test_virtual_threads_benchmark.sh [mode_label] [concurrency levels...]
+# Run once per mode, restarting CoreBanking in between, e.g.:
+#   VIRTUAL_THREADS_ENABLED=false docker compose up -d corebanking-java-service && ./test_virtual_threads_benchmark.sh platform
+#   VIRTUAL_THREADS_ENABLED=true  docker compose up -d corebanking-java-service && ./test_virtual_threads_benchmark.sh virtual
+MODE=${1:-current}
+shift
+LEVELS=${@:-"50 100 200 400 800 1600"}
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+SUSTAINED=0
+
+echo "Mode: $MODE"
+echo "Concurrency levels: $LEVELS"
+echo
+
+printf "%-12s %-12s %-14s %-10s\n" "in-flight" "requests" "throughput" "errors"
+for LEVEL in $LEVELS; do
+    TOTAL=$((LEVEL * 2))
+    OUTPUT=$("$SCRIPT_DIR/test_payment_load.sh" "$TOTAL" "$LEVEL")
+
+    THROUGHPUT=$(echo "$OUTPUT" | grep "Throughput:" | awk '{print $2}')
+    OK_COUNT=$(echo "$OUTPUT" | awk '$2 == "200" {print $1}')
+    ERRORS=$((TOTAL - ${OK_COUNT:-0}))
+
+    printf "%-12s %-12s %-14s %-10s\n" "$LEVEL" "$TOTAL" "${THROUGHPUT:-n/a} req/s" "$ERRORS"
+
+    if [ "$ERRORS" -eq 0 ]; then
+        SUSTAINED=$LEVEL
+    fi
+done
+echo
+
+if [ "$SUSTAINED" -gt 0 ]; then
+    echo "✅ $MODE mode sustained $SUSTAINED concurrent in-flight payments without errors"
+else
+    echo "❌ $MODE mode failed at every concurrency level"
+fi
+echo
+
+echo "=== Benchmark Complete ==="